@@ -0,0 +1,46 @@
+package dev.westernpine.composer.api;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * An action that completes later instead of blocking its thread, for example while waiting on the network.
+ * In non-blocking mode the interpreter chains the returned stage instead of waiting for it; elsewhere
+ * {@link #execute(Payload)} waits for the stage to finish.
+ */
+public interface AsyncAction extends Action {
+
+    CompletionStage<Void> executeAsync(Payload payload);
+
+    @Override
+    default void execute(Payload payload) {
+        try {
+            executeAsync(payload).toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Adapts any action to this interface. Synchronous actions run on the calling thread and return a completed stage.
+     */
+    static AsyncAction of(Action action) {
+        Objects.requireNonNull(action, "action");
+        if (action instanceof AsyncAction async) {
+            return async;
+        }
+        return payload -> {
+            try {
+                action.execute(payload);
+                return CompletableFuture.completedFuture(null);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package dev.westernpine.composer.api;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A predicate that completes later instead of blocking its thread. In non-blocking mode the interpreter chains
+ * the returned stage instead of waiting for it; elsewhere {@link #evaluate(Payload)} waits for the result.
+ */
+public interface AsyncPredicate extends Predicate {
+
+    CompletionStage<Boolean> evaluateAsync(Payload payload);
+
+    @Override
+    default boolean evaluate(Payload payload) {
+        try {
+            return Boolean.TRUE.equals(evaluateAsync(payload).toCompletableFuture().join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Adapts any predicate to this interface. Synchronous predicates run on the calling thread and return a
+     * completed stage.
+     */
+    static AsyncPredicate of(Predicate predicate) {
+        Objects.requireNonNull(predicate, "predicate");
+        if (predicate instanceof AsyncPredicate async) {
+            return async;
+        }
+        return payload -> {
+            try {
+                return CompletableFuture.completedFuture(predicate.evaluate(payload));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package dev.westernpine.composer.api;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A predicate that passes exactly when one payload attribute equals a constant. The interpreter may index
+ * workflows by that constant and skip evaluating workflows whose constant cannot match the event, so
+ * {@link #evaluate(Payload)} must agree with {@link #normalize(Object)} equality of the two values.
+ */
+public interface DiscriminatorPredicate extends PurePredicate {
+
+    String discriminatorAttribute();
+
+    /**
+     * The constant the attribute is compared against, already {@linkplain #normalize(Object) normalized}.
+     */
+    Object discriminatorValue();
+
+    @Override
+    default boolean evaluate(Payload payload) {
+        if (payload == null) {
+            return false;
+        }
+        Object actual = payload.attributes().get(discriminatorAttribute());
+        return actual != null && normalize(actual).equals(discriminatorValue());
+    }
+
+    /**
+     * Maps values that should compare equal onto one representation: whole numbers become {@link Long}, other
+     * numbers {@link Double}, and character sequences {@link String}.
+     */
+    static Object normalize(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof BigInteger integer && integer.bitLength() < Long.SIZE) {
+            return integer.longValue();
+        }
+        if (value instanceof BigDecimal decimal) {
+            try {
+                return decimal.longValueExact();
+            } catch (ArithmeticException ignored) {
+                return decimal.doubleValue();
+            }
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (number == Math.rint(number) && !Double.isInfinite(number) && Math.abs(number) < 0x1p63) {
+                return (long) number;
+            }
+            return number;
+        }
+        if (value instanceof CharSequence sequence) {
+            return sequence.toString();
+        }
+        return value;
+    }
+}
@@ -1,6 +1,16 @@
 package dev.westernpine.composer.api;
 
+import dev.westernpine.composer.model.event.BatchResult;
+import dev.westernpine.composer.model.event.DeadLetter;
+import dev.westernpine.composer.model.event.Topic;
+import dev.westernpine.composer.model.subscriber.Subscription;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public interface EventBus {
@@ -9,5 +19,89 @@ public interface EventBus {
 
     void unsubscribe(String topic, UUID subscriberUuid);
 
+    /**
+     * Registers many subscribers at once and returns their ids in request order. Implementations may apply the
+     * whole batch as a single change.
+     */
+    default List<UUID> subscribeAll(List<Subscription> subscriptions) {
+        List<UUID> ids = new ArrayList<>(subscriptions.size());
+        for (Subscription subscription : subscriptions) {
+            ids.add(subscribe(subscription.topic(), subscription.priority(), subscription.ignoreCancelled(), subscription.listener()));
+        }
+        return ids;
+    }
+
+    /**
+     * Removes many subscribers at once, given as subscriber ids per topic.
+     */
+    default void unsubscribeAll(Map<String, ? extends Collection<UUID>> subscribers) {
+        for (Map.Entry<String, ? extends Collection<UUID>> entry : subscribers.entrySet()) {
+            for (UUID subscriberUuid : entry.getValue()) {
+                unsubscribe(entry.getKey(), subscriberUuid);
+            }
+        }
+    }
+
     void publish(String topic, Payload payload);
+
+    /**
+     * Publishes a payload and returns a future that completes once every subscriber has handled it.
+     * Synchronous buses have already finished dispatching by the time this returns.
+     */
+    default CompletableFuture<Void> publishAsync(String topic, Payload payload) {
+        publish(topic, payload);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Resolves a topic name to a handle that can be published to without re-hashing the name.
+     * Buses without a topic table return an unindexed handle that publishes by name.
+     */
+    default Topic topic(String name) {
+        return new Topic(name, Topic.UNINDEXED);
+    }
+
+    default void publish(Topic topic, Payload payload) {
+        publish(topic.name(), payload);
+    }
+
+    default CompletableFuture<Void> publishAsync(Topic topic, Payload payload) {
+        return publishAsync(topic.name(), payload);
+    }
+
+    /**
+     * Publishes every payload in the batch to one topic. Implementations may resolve subscribers once and
+     * run each subscriber over the whole batch.
+     */
+    default BatchResult publishAll(String topic, Collection<? extends Payload> payloads) {
+        int succeeded = 0;
+        int failed = 0;
+        for (Payload payload : payloads) {
+            try {
+                publish(topic, payload);
+                succeeded++;
+            } catch (RuntimeException e) {
+                failed++;
+            }
+        }
+        return new BatchResult(succeeded, failed);
+    }
+
+    /**
+     * Publishes one batch per topic and returns the combined counts.
+     */
+    default BatchResult publishAll(Map<String, ? extends Collection<? extends Payload>> batches) {
+        BatchResult result = BatchResult.EMPTY;
+        for (Map.Entry<String, ? extends Collection<? extends Payload>> batch : batches.entrySet()) {
+            result = result.plus(publishAll(batch.getKey(), batch.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Routes a failed delivery to the dead-letter topic. The letter is carried in the payload under
+     * {@link dev.westernpine.composer.model.payload.PayloadKeys#DEAD_LETTER}. Failures of dead-letter subscribers
+     * themselves are not re-routed.
+     */
+    void deadLetter(DeadLetter letter);
 }
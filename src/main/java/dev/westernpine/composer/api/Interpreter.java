@@ -22,6 +22,34 @@ public interface Interpreter {
 
     void removeWorkflow(String id);
 
+    /**
+     * Adds many workflows at once. The default adds them one by one; implementations may build and subscribe
+     * the whole batch together.
+     */
+    default void addWorkflows(Collection<Workflow> workflows) {
+        for (Workflow workflow : workflows) {
+            addWorkflow(workflow);
+        }
+    }
+
+    /**
+     * Removes many workflows at once. The default removes them one by one.
+     */
+    default void removeWorkflows(Collection<String> ids) {
+        for (String id : ids) {
+            removeWorkflow(id);
+        }
+    }
+
+    /**
+     * Replaces a loaded workflow with a new version of the same id, or adds it if none is loaded. The default
+     * removes and re-adds it; implementations should swap it without a window in which neither version runs.
+     */
+    default void replaceWorkflow(Workflow workflow) {
+        removeWorkflow(workflow.getId());
+        addWorkflow(workflow);
+    }
+
     Optional<Binding> getBinding(WorkflowBinding binding);
 
     Optional<Predicate> getPredicate(WorkflowPredicate predicate);
@@ -0,0 +1,8 @@
+package dev.westernpine.composer.api;
+
+/**
+ * Marks a predicate whose result depends only on the payload's attributes and which has no side effects, so
+ * the interpreter may reuse one evaluation for every workflow that checks it against the same event.
+ */
+public interface PurePredicate extends Predicate {
+}
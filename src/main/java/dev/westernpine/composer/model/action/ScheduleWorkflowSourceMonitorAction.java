@@ -12,6 +12,7 @@ import dev.westernpine.composer.utilities.ArgsUtility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Timer;
@@ -108,25 +109,28 @@ public final class ScheduleWorkflowSourceMonitorAction implements Action {
                         LOGGER.debug("Workflow monitor for '{}' detected {} removed, {} added, {} updated workflows", sourceId, removedWorkflows.size(), addedWorkflows.size(), updatedWorkflows.size());
 
                         // remove first
-                        for (String workflowId : removedWorkflows) {
-                            LOGGER.info("Removing workflow '{}' detected as removed from source '{}'", workflowId, sourceId);
-                            engine.getInterpreter().removeWorkflow(workflowId);
+                        if (!removedWorkflows.isEmpty()) {
+                            LOGGER.info("Removing {} workflow(s) detected as removed from source '{}'", removedWorkflows.size(), sourceId);
+                            engine.getInterpreter().removeWorkflows(removedWorkflows);
                         }
 
-                        // then Load unloaded
+                        // then Load unloaded, registering them as one batch
+                        List<Workflow> loaded = new ArrayList<>();
                         for (String workflowId : addedWorkflows) {
                             LOGGER.info("Loading new workflow '{}' from source '{}'", workflowId, sourceId);
-                            Optional<Workflow> workflow = loader.load(workflowId);
-                            workflow.ifPresent(value -> engine.getInterpreter().addWorkflow(value));
+                            loader.load(workflowId).ifPresent(loaded::add);
                         }
+                        engine.getInterpreter().addWorkflows(loaded);
 
-                        // then update? (Remove, then re-load)
+                        // then swap updated workflows in place, so their bindings never go unsubscribed
                         for(String workflowId : updatedWorkflows) {
                             LOGGER.info("Updating workflow '{}' from source '{}'", workflowId, sourceId);
-                            engine.getInterpreter().removeWorkflow(workflowId);
-
                             Optional<Workflow> workflow = loader.load(workflowId);
-                            workflow.ifPresent(value -> engine.getInterpreter().addWorkflow(value));
+                            if (workflow.isPresent()) {
+                                engine.getInterpreter().replaceWorkflow(workflow.get());
+                            } else {
+                                engine.getInterpreter().removeWorkflow(workflowId);
+                            }
                         }
                     } catch (Exception e) {
                         LOGGER.error("Error while monitoring workflow source '{}'", sourceId, e);
@@ -0,0 +1,19 @@
+package dev.westernpine.composer.model.event;
+
+/**
+ * Outcome of a batch publish. A payload counts as failed when at least one subscriber threw while handling it,
+ * or when the bus refused to accept it. Buses that dispatch on other threads report payloads accepted for
+ * dispatch as succeeded.
+ */
+public record BatchResult(int succeeded, int failed) {
+
+    public static final BatchResult EMPTY = new BatchResult(0, 0);
+
+    public int total() {
+        return succeeded + failed;
+    }
+
+    public BatchResult plus(BatchResult other) {
+        return new BatchResult(succeeded + other.succeeded, failed + other.failed);
+    }
+}
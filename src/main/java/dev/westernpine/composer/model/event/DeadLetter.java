@@ -0,0 +1,17 @@
+package dev.westernpine.composer.model.event;
+
+import dev.westernpine.composer.api.Payload;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A delivery that threw. {@code target} redelivers the payload to exactly the subscriber or action that failed,
+ * so a retry does not re-run work that already succeeded.
+ */
+public record DeadLetter(String topic, UUID subscriberId, Payload payload, Exception error, int attempts, Consumer<Payload> target) {
+
+    public DeadLetter nextAttempt(Exception error) {
+        return new DeadLetter(topic, subscriberId, payload, error, attempts + 1, target);
+    }
+}
@@ -8,4 +8,11 @@ public final class EventKeys {
 
     public static final String WORKFLOW_ADDED = "workflow.added";
     public static final String WORKFLOW_REMOVED = "workflow.removed";
+    public static final String WORKFLOW_REPLACED = "workflow.replaced";
+    public static final String WORKFLOWS_ADDED = "workflows.added";
+    public static final String WORKFLOWS_REMOVED = "workflows.removed";
+    public static final String WORKFLOW_CIRCUIT_OPENED = "workflow.circuit.opened";
+    public static final String WORKFLOW_CIRCUIT_HALF_OPENED = "workflow.circuit.half-opened";
+    public static final String WORKFLOW_CIRCUIT_CLOSED = "workflow.circuit.closed";
+    public static final String DEAD_LETTER = "event.dead-letter";
 }
@@ -0,0 +1,11 @@
+package dev.westernpine.composer.model.event;
+
+/**
+ * Interned topic handle returned by {@code EventBus#topic(String)}. The id indexes directly into the issuing
+ * bus's subscriber table, so handles are only meaningful for the bus that created them; other buses fall
+ * back to publishing by name.
+ */
+public record Topic(String name, int id) {
+
+    public static final int UNINDEXED = -1;
+}
@@ -3,10 +3,14 @@ package dev.westernpine.composer.model.payload;
 public final class PayloadKeys {
 
     public static final String WORKFLOW_ID = "workflow.id";
+    public static final String WORKFLOW_IDS = "workflow.ids";
     public static final String WORKFLOW_SOURCE = "workflow.source";
     public static final String REGISTRY_KEY = "registry.key";
     public static final String REGISTRY_VALUE = "registry.value";
     public static final String REGISTRY_TTL = "registry.ttl";
+    public static final String DEAD_LETTER = "dead-letter";
+    public static final String EVENT_DEADLINE = "event.deadline";
+    public static final String CIRCUIT_FAILURE_RATIO = "circuit.failure-ratio";
 
     private PayloadKeys() {
     }
@@ -0,0 +1,50 @@
+package dev.westernpine.composer.model.predicate;
+
+import dev.westernpine.composer.api.DiscriminatorPredicate;
+import dev.westernpine.composer.api.Engine;
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.utilities.ArgsUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * Passes when the payload attribute named by the {@code attribute} argument equals the {@code value} argument.
+ * Numbers compare by value, so {@code 1}, {@code 1L} and {@code 1.0} are equal.
+ */
+public final class PayloadAttributeEqualsPredicate implements DiscriminatorPredicate {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PayloadAttributeEqualsPredicate.class);
+
+    private final String attribute;
+    private final Object value;
+
+    public PayloadAttributeEqualsPredicate(Engine engine, Map<String, Object> arguments) {
+        this.attribute = ArgsUtility.readString(arguments, "attribute")
+                .filter(name -> !name.isBlank())
+                .orElseThrow(() -> new IllegalArgumentException("PayloadAttributeEqualsPredicate requires an 'attribute' argument"));
+        Object raw = arguments.get("value");
+        if (raw == null) {
+            throw new IllegalArgumentException("PayloadAttributeEqualsPredicate requires a 'value' argument");
+        }
+        this.value = DiscriminatorPredicate.normalize(raw);
+    }
+
+    @Override
+    public String discriminatorAttribute() {
+        return attribute;
+    }
+
+    @Override
+    public Object discriminatorValue() {
+        return value;
+    }
+
+    @Override
+    public boolean evaluate(Payload payload) {
+        boolean matches = DiscriminatorPredicate.super.evaluate(payload);
+        LOGGER.trace("PayloadAttributeEqualsPredicate '{}' == '{}': {}", attribute, value, matches);
+        return matches;
+    }
+}
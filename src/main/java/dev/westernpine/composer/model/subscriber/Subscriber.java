@@ -5,5 +5,9 @@ import dev.westernpine.composer.api.Payload;
 import java.util.UUID;
 import java.util.function.Consumer;
 
-public record Subscriber(UUID uuid, int priority, boolean ignoreCancelled, Consumer<Payload> listener) {
+public record Subscriber(UUID uuid, int priority, boolean ignoreCancelled, Consumer<Payload> listener, SubscriberStats stats) {
+
+    public Subscriber(UUID uuid, int priority, boolean ignoreCancelled, Consumer<Payload> listener) {
+        this(uuid, priority, ignoreCancelled, listener, new SubscriberStats());
+    }
 }
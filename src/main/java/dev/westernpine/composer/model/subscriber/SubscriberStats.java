@@ -0,0 +1,76 @@
+package dev.westernpine.composer.model.subscriber;
+
+import dev.westernpine.composer.utilities.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution statistics and budget state for one subscriber, updated by the event bus on every delivery.
+ */
+public final class SubscriberStats {
+
+    public enum State {
+        ACTIVE,
+        DEMOTED,
+        QUARANTINED
+    }
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder budgetViolations = new LongAdder();
+    private final AtomicInteger consecutiveViolations = new AtomicInteger();
+    private volatile TimeBudget budget;
+    private volatile State state = State.ACTIVE;
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public Duration getPercentile(double percentile) {
+        return latency.getPercentile(percentile);
+    }
+
+    public long getBudgetViolations() {
+        return budgetViolations.sum();
+    }
+
+    public TimeBudget getBudget() {
+        return budget;
+    }
+
+    public void setBudget(TimeBudget budget) {
+        this.budget = budget;
+        consecutiveViolations.set(0);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+        consecutiveViolations.set(0);
+    }
+
+    /**
+     * Records one delivery and returns the budget action to apply, or {@code null} when none is due.
+     */
+    public TimeBudget.Action record(long nanos) {
+        latency.record(nanos);
+        TimeBudget current = budget;
+        if (current == null) {
+            return null;
+        }
+        if (nanos <= current.budget().toNanos()) {
+            consecutiveViolations.set(0);
+            return null;
+        }
+        budgetViolations.increment();
+        if (consecutiveViolations.incrementAndGet() < current.maxViolations()) {
+            return null;
+        }
+        consecutiveViolations.set(0);
+        return current.action();
+    }
+}
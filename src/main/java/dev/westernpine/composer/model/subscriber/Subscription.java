@@ -0,0 +1,12 @@
+package dev.westernpine.composer.model.subscriber;
+
+import dev.westernpine.composer.api.Payload;
+
+import java.util.function.Consumer;
+
+/**
+ * A subscription request for {@link dev.westernpine.composer.api.EventBus#subscribeAll(java.util.List)}, with the
+ * same meaning as the arguments of {@code subscribe}.
+ */
+public record Subscription(String topic, int priority, boolean ignoreCancelled, Consumer<Payload> listener) {
+}
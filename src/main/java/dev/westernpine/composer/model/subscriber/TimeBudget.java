@@ -0,0 +1,31 @@
+package dev.westernpine.composer.model.subscriber;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Per-subscriber execution budget. When a subscriber exceeds {@code budget} on {@code maxViolations}
+ * consecutive deliveries, the bus applies {@code action}.
+ */
+public record TimeBudget(Duration budget, int maxViolations, Action action) {
+
+    public TimeBudget {
+        Objects.requireNonNull(budget, "budget");
+        Objects.requireNonNull(action, "action");
+        if (maxViolations < 1) {
+            throw new IllegalArgumentException("maxViolations must be at least 1");
+        }
+    }
+
+    public enum Action {
+
+        /** Logs and counts the subscriber, but keeps delivering to it as before. */
+        LOG,
+
+        /** Keeps delivering, but off the publishing thread so it no longer delays lower-priority subscribers. */
+        DEMOTE_ASYNC,
+
+        /** Stops delivering to the subscriber until it is reinstated. */
+        QUARANTINE
+    }
+}
@@ -2,5 +2,13 @@ package dev.westernpine.composer.model.workflow;
 
 import java.util.Map;
 
-public record WorkflowAction(String id, Map<String, Object> args) {
-}
\ No newline at end of file
+/**
+ * @param parallelGroup optional group name; consecutive actions with the same group run concurrently and are
+ *                      joined before the next action starts. {@code null} runs the action on its own.
+ */
+public record WorkflowAction(String id, Map<String, Object> args, String parallelGroup) {
+
+    public WorkflowAction(String id, Map<String, Object> args) {
+        this(id, args, null);
+    }
+}
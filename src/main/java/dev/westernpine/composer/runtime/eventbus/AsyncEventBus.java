@@ -0,0 +1,146 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.model.event.BatchResult;
+import dev.westernpine.composer.model.event.Topic;
+import dev.westernpine.composer.model.subscriber.Subscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event bus that hands every published event to an {@link Executor} instead of running subscribers on the
+ * publishing thread. Within one event, subscribers still run one after another in priority order so
+ * cancellation semantics are identical to {@link DefaultEventBus}.
+ */
+public class AsyncEventBus extends DefaultEventBus implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncEventBus.class);
+
+    private final Executor executor;
+    private final boolean ownsExecutor;
+
+    public AsyncEventBus() {
+        this(newDispatchPool(), true);
+    }
+
+    public AsyncEventBus(Executor executor) {
+        this(executor, false);
+    }
+
+    private AsyncEventBus(Executor executor, boolean ownsExecutor) {
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.ownsExecutor = ownsExecutor;
+        LOGGER.info("Created asynchronous event bus using executor {}", executor.getClass().getName());
+    }
+
+    /**
+     * Creates a bus that dispatches each event on its own virtual thread. Virtual threads require a Java 21
+     * runtime; on older runtimes the bus falls back to a cached platform thread pool.
+     */
+    public static AsyncEventBus virtualThreadPerEvent() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return new AsyncEventBus((ExecutorService) factory.invoke(null), true);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("Virtual threads are not available on this runtime; falling back to a cached thread pool");
+            return new AsyncEventBus();
+        }
+    }
+
+    @Override
+    public void publish(String topic, Payload payload) {
+        submit(topic, subscribersOf(topic), payload);
+    }
+
+    @Override
+    public void publish(Topic topic, Payload payload) {
+        submit(topic.name(), subscribersOf(topic), payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(String topic, Payload payload) {
+        return submit(topic, subscribersOf(topic), payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(Topic topic, Payload payload) {
+        return submit(topic.name(), subscribersOf(topic), payload);
+    }
+
+    private CompletableFuture<Void> submit(String topic, Subscriber[] listeners, Payload payload) {
+        if (listeners.length == 0) {
+            LOGGER.debug("No listeners to publish to for topic '{}'", topic);
+            return CompletableFuture.completedFuture(null);
+        }
+        LOGGER.debug("Queueing event for {} subscriber(s) on topic '{}'", listeners.length, topic);
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    dispatch(topic, listeners, payload);
+                    completion.complete(null);
+                } catch (Throwable t) {
+                    completion.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.error("Executor rejected event for topic '{}'", topic, e);
+            completion.completeExceptionally(e);
+        }
+        return completion;
+    }
+
+    /**
+     * Dispatches the whole batch as one task, so each subscriber runs over every payload in turn. The
+     * returned counts reflect whether the batch was accepted by the executor.
+     */
+    @Override
+    public BatchResult publishAll(String topic, Collection<? extends Payload> payloads) {
+        Subscriber[] listeners = subscribersOf(topic);
+        if (payloads.isEmpty() || listeners.length == 0) {
+            return new BatchResult(payloads.size(), 0);
+        }
+        Payload[] batch = payloads.toArray(Payload[]::new);
+        try {
+            executor.execute(() -> {
+                BatchResult result = dispatchBatch(topic, listeners, batch);
+                LOGGER.debug("Dispatched batch on topic '{}' with {} succeeded and {} failed", topic, result.succeeded(), result.failed());
+            });
+            return new BatchResult(batch.length, 0);
+        } catch (RejectedExecutionException e) {
+            LOGGER.error("Executor rejected batch of {} event(s) for topic '{}'", batch.length, topic, e);
+            return new BatchResult(0, batch.length);
+        }
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor && executor instanceof ExecutorService service) {
+            LOGGER.info("Shutting down asynchronous event bus executor");
+            service.shutdown();
+        }
+    }
+
+    private static ExecutorService newDispatchPool() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "composer-event-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,151 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+import dev.westernpine.composer.api.Payload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Holds back events on coalescing topics and hands one merged event per key to {@code sink} when its window
+ * closes. The flush runs on a single daemon thread that is only started once a topic is configured.
+ */
+final class Coalescer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Coalescer.class);
+
+    private final BiConsumer<String, Payload> sink;
+    private final Map<String, CoalescingPolicy> policies = new ConcurrentHashMap<>();
+    private final Map<PendingKey, Pending> pending = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private volatile boolean enabled;
+    private volatile ScheduledExecutorService scheduler;
+
+    Coalescer(BiConsumer<String, Payload> sink) {
+        this.sink = Objects.requireNonNull(sink, "sink");
+    }
+
+    void configure(String topic, CoalescingPolicy policy) {
+        if (policy == null) {
+            policies.remove(topic);
+        } else {
+            scheduler();
+            policies.put(topic, policy);
+        }
+        enabled = !policies.isEmpty();
+    }
+
+    /**
+     * Returns {@code true} when the event was taken over and will be delivered later, merged with its peers.
+     */
+    boolean offer(String topic, Payload payload) {
+        if (!enabled) {
+            return false;
+        }
+        CoalescingPolicy policy = policies.get(topic);
+        if (policy == null) {
+            return false;
+        }
+        Object key = payload.attributes().get(policy.keyAttribute());
+        if (key == null) {
+            return false;
+        }
+        PendingKey pendingKey = new PendingKey(topic, key);
+        pending.compute(pendingKey, (ignored, existing) -> {
+            if (existing == null) {
+                Pending created = new Pending(payload);
+                created.flush = schedule(pendingKey, created, policy);
+                return created;
+            }
+            existing.payload = policy.merge().apply(existing.payload, payload);
+            coalesced.increment();
+            if (policy.debounce() && existing.flush.cancel(false)) {
+                existing.flush = schedule(pendingKey, existing, policy);
+            }
+            return existing;
+        });
+        return true;
+    }
+
+    /**
+     * Delivers every held event immediately.
+     */
+    void flushAll() {
+        for (Map.Entry<PendingKey, Pending> entry : pending.entrySet()) {
+            entry.getValue().flush.cancel(false);
+            flush(entry.getKey(), entry.getValue());
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    long getFlushedCount() {
+        return flushed.sum();
+    }
+
+    int getPendingCount() {
+        return pending.size();
+    }
+
+    private ScheduledFuture<?> schedule(PendingKey key, Pending entry, CoalescingPolicy policy) {
+        return scheduler().schedule(() -> flush(key, entry), policy.window().toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void flush(PendingKey key, Pending entry) {
+        // The entry is only mutated inside compute, so once it is removed here nothing else touches it.
+        if (!pending.remove(key, entry)) {
+            return;
+        }
+        flushed.increment();
+        try {
+            sink.accept(key.topic(), entry.payload);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to deliver coalesced event for topic '{}'", key.topic(), e);
+        }
+    }
+
+    private ScheduledExecutorService scheduler() {
+        ScheduledExecutorService current = scheduler;
+        if (current == null) {
+            synchronized (this) {
+                current = scheduler;
+                if (current == null) {
+                    current = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "composer-coalescer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    scheduler = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private record PendingKey(String topic, Object key) {
+    }
+
+    private static final class Pending {
+        private Payload payload;
+        private ScheduledFuture<?> flush;
+
+        private Pending(Payload payload) {
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+import dev.westernpine.composer.api.Payload;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+
+/**
+ * Describes how bursts of events on one topic are merged before delivery. Events that carry the same value
+ * for {@code keyAttribute} within {@code window} are combined with {@code merge} (older, newer) and delivered
+ * once when the window closes. Events without the key attribute are delivered immediately.
+ * <p>
+ * With {@code debounce} the window restarts on every new event, so the merged event is only delivered once
+ * the key has been quiet for the whole window.
+ */
+public record CoalescingPolicy(String keyAttribute, Duration window, BinaryOperator<Payload> merge, boolean debounce) {
+
+    /** Keeps the most recent event and discards the earlier ones. */
+    public static final BinaryOperator<Payload> KEEP_LATEST = (older, newer) -> newer;
+
+    public CoalescingPolicy {
+        Objects.requireNonNull(keyAttribute, "keyAttribute");
+        Objects.requireNonNull(window, "window");
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        merge = merge == null ? KEEP_LATEST : merge;
+    }
+
+    public CoalescingPolicy(String keyAttribute, Duration window) {
+        this(keyAttribute, window, KEEP_LATEST, false);
+    }
+}
@@ -2,70 +2,727 @@ package dev.westernpine.composer.runtime.eventbus;
 
 import dev.westernpine.composer.api.EventBus;
 import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.model.event.BatchResult;
+import dev.westernpine.composer.model.event.DeadLetter;
+import dev.westernpine.composer.model.event.EventKeys;
+import dev.westernpine.composer.model.event.Topic;
+import dev.westernpine.composer.model.payload.DefaultPayload;
+import dev.westernpine.composer.model.payload.PayloadKeys;
 import dev.westernpine.composer.model.subscriber.Subscriber;
+import dev.westernpine.composer.model.subscriber.SubscriberStats;
+import dev.westernpine.composer.model.subscriber.Subscription;
+import dev.westernpine.composer.model.subscriber.TimeBudget;
+import dev.westernpine.composer.utilities.metrics.LatencyHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 
 public class DefaultEventBus implements EventBus {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultEventBus.class);
 
-    private final Map<String, List<Subscriber>> subscribers = new HashMap<>();
+    private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+    private static final Comparator<Subscriber> BY_PRIORITY = Comparator.comparingInt(Subscriber::priority).reversed();
+
+    private static final int UNINTERNED_LIMIT = 1024;
+
+    // Exact-topic subscriptions, and wildcard subscriptions ('*' and '#' segments) kept in a trie.
+    // Both are only touched while holding the write lock.
+    private final Map<String, Subscriber[]> exact = new HashMap<>();
+    private final TopicTrie patterns = new TopicTrie();
+    private final Object writeLock = new Object();
+
+    // Every concrete topic is interned to a handle whose id indexes the topic table. Each slot holds an
+    // immutable, priority-sorted snapshot of every exact and wildcard subscriber the topic matches. Writers
+    // swap in new arrays under the write lock, so publishers never lock or copy.
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private volatile TopicTable table = new TopicTable(new Topic[0], new AtomicReferenceArray<>(0), 0);
+
+    // Wildcard matches for names that are published to but were never interned, so arbitrary topic names
+    // cannot grow the table. Bounded, and cleared whenever the wildcard subscriptions change.
+    private final Map<String, Subscriber[]> uninterned = new ConcurrentHashMap<>();
+
+    // Subscription ids share a random prefix per bus and a sequential suffix, which avoids SecureRandom.
+    private final long subscriberIdPrefix = UUID.randomUUID().getMostSignificantBits();
+    private final AtomicLong subscriberSequence = new AtomicLong();
+
+    private volatile String deadLetterTopic = EventKeys.DEAD_LETTER;
+
+    // Every live subscriber by id, so statistics and budgets can be looked up without scanning topics.
+    private final Map<UUID, Subscriber> subscribersById = new ConcurrentHashMap<>();
+    private volatile TimeBudget defaultTimeBudget;
+    // Off by default: timing costs two clock reads and shared histogram updates per delivery.
+    private volatile boolean timingEnabled;
+    private volatile ExecutorService demotedExecutor;
+    private volatile ExecutorService deadLetterExecutor;
+
+    private final Coalescer coalescer = new Coalescer(this::deliverCoalesced);
 
     @Override
-    public synchronized UUID subscribe(String topic, int priority, boolean ignoreCancelled, Consumer<Payload> listener) {
-        UUID uuid = UUID.randomUUID();
-        List<Subscriber> listeners = subscribers.computeIfAbsent(topic, key -> new ArrayList<>());
+    public UUID subscribe(String topic, int priority, boolean ignoreCancelled, Consumer<Payload> listener) {
+        UUID uuid = new UUID(subscriberIdPrefix, subscriberSequence.incrementAndGet());
         Subscriber subscriber = new Subscriber(uuid, priority, ignoreCancelled, listener);
-        int index = 0;
-        while (index < listeners.size() && listeners.get(index).priority() >= priority) {
-            index++;
+        subscriber.stats().setBudget(defaultTimeBudget);
+        subscribersById.put(uuid, subscriber);
+        synchronized (writeLock) {
+            if (TopicTrie.isPattern(topic)) {
+                patterns.add(topic, subscriber);
+                refreshMatching(List.of(topic));
+            } else {
+                Subscriber[] current = exact.getOrDefault(topic, NO_SUBSCRIBERS);
+                int index = 0;
+                while (index < current.length && current[index].priority() >= priority) {
+                    index++;
+                }
+                Subscriber[] updated = new Subscriber[current.length + 1];
+                System.arraycopy(current, 0, updated, 0, index);
+                updated[index] = subscriber;
+                System.arraycopy(current, index, updated, index + 1, current.length - index);
+                exact.put(topic, updated);
+                refresh(intern(topic));
+            }
         }
-        listeners.add(index, subscriber);
         LOGGER.info("Registered subscriber {} for topic '{}' with priority {} (ignoreCancelled={})", uuid, topic, priority, ignoreCancelled);
         return uuid;
     }
 
     @Override
-    public synchronized void unsubscribe(String topic, UUID subscriberUuid) {
-        List<Subscriber> listeners = subscribers.get(topic);
-        if (listeners == null) {
-            LOGGER.debug("No subscribers found for topic '{}' when attempting to unsubscribe {}", topic, subscriberUuid);
-            return;
-        }
-        listeners.removeIf(subscriber -> subscriber.uuid().equals(subscriberUuid));
-        if (listeners.isEmpty()) {
-            subscribers.remove(topic);
+    public void unsubscribe(String topic, UUID subscriberUuid) {
+        synchronized (writeLock) {
+            if (TopicTrie.isPattern(topic)) {
+                if (!patterns.remove(topic, subscriberUuid)) {
+                    LOGGER.debug("No wildcard subscriber {} found for pattern '{}'", subscriberUuid, topic);
+                    return;
+                }
+                refreshMatching(List.of(topic));
+            } else {
+                Subscriber[] current = exact.get(topic);
+                if (current == null) {
+                    LOGGER.debug("No subscribers found for topic '{}' when attempting to unsubscribe {}", topic, subscriberUuid);
+                    return;
+                }
+                Subscriber[] updated = Arrays.stream(current)
+                        .filter(subscriber -> !subscriber.uuid().equals(subscriberUuid))
+                        .toArray(Subscriber[]::new);
+                if (updated.length == 0) {
+                    exact.remove(topic);
+                } else {
+                    exact.put(topic, updated);
+                }
+                refresh(intern(topic));
+            }
         }
+        subscribersById.remove(subscriberUuid);
         LOGGER.info("Unregistered subscriber {} from topic '{}'", subscriberUuid, topic);
     }
 
+    /**
+     * Registers the whole batch under one lock acquisition, merging each topic's subscriber array and rebuilding
+     * the topic table once.
+     */
+    @Override
+    public List<UUID> subscribeAll(List<Subscription> subscriptions) {
+        if (subscriptions.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = new ArrayList<>(subscriptions.size());
+        Map<String, List<Subscriber>> byTopic = new LinkedHashMap<>();
+        List<Subscription> wildcards = new ArrayList<>();
+        List<Subscriber> wildcardSubscribers = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            UUID uuid = new UUID(subscriberIdPrefix, subscriberSequence.incrementAndGet());
+            Subscriber subscriber = new Subscriber(uuid, subscription.priority(), subscription.ignoreCancelled(), subscription.listener());
+            subscriber.stats().setBudget(defaultTimeBudget);
+            subscribersById.put(uuid, subscriber);
+            ids.add(uuid);
+            if (TopicTrie.isPattern(subscription.topic())) {
+                wildcards.add(subscription);
+                wildcardSubscribers.add(subscriber);
+            } else {
+                byTopic.computeIfAbsent(subscription.topic(), topic -> new ArrayList<>()).add(subscriber);
+            }
+        }
+        synchronized (writeLock) {
+            for (int i = 0; i < wildcards.size(); i++) {
+                patterns.add(wildcards.get(i).topic(), wildcardSubscribers.get(i));
+            }
+            for (Map.Entry<String, List<Subscriber>> entry : byTopic.entrySet()) {
+                List<Subscriber> merged = new ArrayList<>(Arrays.asList(exact.getOrDefault(entry.getKey(), NO_SUBSCRIBERS)));
+                merged.addAll(entry.getValue());
+                // Stable sort keeps earlier subscribers ahead of later ones of equal priority, as subscribe does.
+                merged.sort(BY_PRIORITY);
+                exact.put(entry.getKey(), merged.toArray(Subscriber[]::new));
+            }
+            internAll(byTopic.keySet());
+            for (String topic : byTopic.keySet()) {
+                refresh(topics.get(topic));
+            }
+            if (!wildcards.isEmpty()) {
+                refreshMatching(wildcards.stream().map(Subscription::topic).distinct().toList());
+            }
+        }
+        LOGGER.info("Registered {} subscriber(s) across {} topic(s) and {} pattern(s)", ids.size(), byTopic.size(), wildcards.size());
+        return ids;
+    }
+
+    @Override
+    public void unsubscribeAll(Map<String, ? extends Collection<UUID>> subscribers) {
+        int removed = 0;
+        synchronized (writeLock) {
+            List<String> changedPatterns = new ArrayList<>();
+            List<Topic> changed = new ArrayList<>();
+            for (Map.Entry<String, ? extends Collection<UUID>> entry : subscribers.entrySet()) {
+                String topic = entry.getKey();
+                if (TopicTrie.isPattern(topic)) {
+                    for (UUID subscriberUuid : entry.getValue()) {
+                        if (patterns.remove(topic, subscriberUuid)) {
+                            if (!changedPatterns.contains(topic)) {
+                                changedPatterns.add(topic);
+                            }
+                            removed++;
+                        }
+                    }
+                    continue;
+                }
+                Subscriber[] current = exact.get(topic);
+                if (current == null) {
+                    continue;
+                }
+                Set<UUID> ids = new HashSet<>(entry.getValue());
+                Subscriber[] updated = Arrays.stream(current)
+                        .filter(subscriber -> !ids.contains(subscriber.uuid()))
+                        .toArray(Subscriber[]::new);
+                removed += current.length - updated.length;
+                if (updated.length == 0) {
+                    exact.remove(topic);
+                } else {
+                    exact.put(topic, updated);
+                }
+                changed.add(intern(topic));
+            }
+            changed.forEach(this::refresh);
+            if (!changedPatterns.isEmpty()) {
+                refreshMatching(changedPatterns);
+            }
+        }
+        subscribers.values().forEach(ids -> ids.forEach(subscribersById::remove));
+        LOGGER.info("Unregistered {} subscriber(s) across {} topic(s)", removed, subscribers.size());
+    }
+
     @Override
-    public synchronized void publish(String topic, Payload payload) {
-        var listeners = subscribers.get(topic);
-        if (listeners == null || listeners.isEmpty()) {
+    public Topic topic(String name) {
+        Topic topic = topics.get(Objects.requireNonNull(name, "name"));
+        if (topic != null) {
+            return topic;
+        }
+        synchronized (writeLock) {
+            topic = topics.get(name);
+            if (topic == null) {
+                topic = intern(name);
+                refresh(topic);
+            }
+            return topic;
+        }
+    }
+
+    @Override
+    public void publish(String topic, Payload payload) {
+        publish(topic, subscribersOf(topic), payload);
+    }
+
+    @Override
+    public void publish(Topic topic, Payload payload) {
+        publish(topic.name(), subscribersOf(topic), payload);
+    }
+
+    private void publish(String topic, Subscriber[] listeners, Payload payload) {
+        if (listeners.length == 0) {
             LOGGER.debug("No listeners to publish to for topic '{}'", topic);
             return;
         }
-        LOGGER.debug("Publishing event to {} subscriber(s) on topic '{}'", listeners.size(), topic);
-        for (Subscriber subscriber : List.copyOf(listeners)) { // copyOf because of synchronization
-            if (payload.isCancelled() && !subscriber.ignoreCancelled()) {
-                LOGGER.debug("Skipping subscriber {} for topic '{}' because payload is cancelled", subscriber.uuid(), topic);
-                continue;
+        LOGGER.debug("Publishing event to {} subscriber(s) on topic '{}'", listeners.length, topic);
+        dispatch(topic, listeners, payload);
+    }
+
+    /**
+     * Returns the current subscriber snapshot for a concrete topic, including matching wildcard subscribers.
+     * The array is shared and must not be modified.
+     */
+    protected Subscriber[] subscribersOf(String topic) {
+        Topic handle = topics.get(topic);
+        if (handle != null) {
+            return table.slots.get(handle.id());
+        }
+        if (patterns.isEmpty()) {
+            return NO_SUBSCRIBERS;
+        }
+        Subscriber[] cached = uninterned.get(topic);
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (writeLock) {
+            handle = topics.get(topic);
+            if (handle != null) {
+                return table.slots.get(handle.id());
+            }
+            Subscriber[] matches = matching(topic);
+            if (uninterned.size() >= UNINTERNED_LIMIT) {
+                uninterned.clear();
+            }
+            uninterned.put(topic, matches);
+            return matches;
+        }
+    }
+
+    /**
+     * Returns the current subscriber snapshot for a topic handle. Handles issued by another bus are
+     * resolved by name.
+     */
+    protected Subscriber[] subscribersOf(Topic topic) {
+        TopicTable current = table;
+        int id = topic.id();
+        if (id >= 0 && id < current.size && current.topics[id] == topic) {
+            return current.slots.get(id);
+        }
+        return subscribersOf(topic.name());
+    }
+
+    @Override
+    public BatchResult publishAll(String topic, Collection<? extends Payload> payloads) {
+        Subscriber[] listeners = subscribersOf(topic);
+        if (payloads.isEmpty()) {
+            return BatchResult.EMPTY;
+        }
+        if (listeners.length == 0) {
+            LOGGER.debug("No listeners to publish batch of {} to for topic '{}'", payloads.size(), topic);
+            return new BatchResult(payloads.size(), 0);
+        }
+        LOGGER.debug("Publishing batch of {} event(s) to {} subscriber(s) on topic '{}'", payloads.size(), listeners.length, topic);
+        return dispatchBatch(topic, listeners, payloads.toArray(Payload[]::new));
+    }
+
+    /**
+     * Delivers a payload to a subscriber snapshot in priority order, honouring cancellation flags.
+     */
+    protected void dispatch(String topic, Subscriber[] listeners, Payload payload) {
+        if (coalescer.offer(topic, payload)) {
+            LOGGER.trace("Holding event on topic '{}' for coalescing", topic);
+            return;
+        }
+        deliverAll(topic, listeners, payload);
+    }
+
+    private void deliverAll(String topic, Subscriber[] listeners, Payload payload) {
+        DispatchScope scope = new DispatchScope();
+        DispatchScope outer = DispatchScope.enter(scope);
+        try {
+            for (Subscriber subscriber : listeners) {
+                if (payload.isCancelled() && !subscriber.ignoreCancelled()) {
+                    LOGGER.debug("Skipping subscriber {} for topic '{}' because payload is cancelled", subscriber.uuid(), topic);
+                    continue;
+                }
+                SubscriberStats.State state = subscriber.stats().getState();
+                if (state == SubscriberStats.State.ACTIVE) {
+                    scope.advance();
+                    deliver(topic, subscriber, payload);
+                } else if (state == SubscriberStats.State.DEMOTED) {
+                    demotedExecutor().execute(() -> deliver(topic, subscriber, payload));
+                }
+            }
+        } finally {
+            DispatchScope.restore(outer);
+        }
+    }
+
+    /**
+     * Runs each subscriber over the whole batch before moving to the next, so a subscriber's code and data
+     * stay hot across the batch. Per-payload cancellation is still honoured.
+     */
+    protected BatchResult dispatchBatch(String topic, Subscriber[] listeners, Payload[] payloads) {
+        if (!coalescer.isEnabled()) {
+            return deliverBatch(topic, listeners, payloads);
+        }
+        Payload[] remaining = Arrays.stream(payloads)
+                .filter(payload -> !coalescer.offer(topic, payload))
+                .toArray(Payload[]::new);
+        if (remaining.length != payloads.length) {
+            return new BatchResult(payloads.length - remaining.length, 0).plus(deliverBatch(topic, listeners, remaining));
+        }
+        return deliverBatch(topic, listeners, payloads);
+    }
+
+    private BatchResult deliverBatch(String topic, Subscriber[] listeners, Payload[] payloads) {
+        boolean[] failed = new boolean[payloads.length];
+        // Each payload is its own dispatch, even though its subscribers run interleaved with the others'.
+        DispatchScope[] scopes = new DispatchScope[payloads.length];
+        DispatchScope outer = DispatchScope.current();
+        try {
+            for (Subscriber subscriber : listeners) {
+                for (int i = 0; i < payloads.length; i++) {
+                    Payload payload = payloads[i];
+                    if (payload.isCancelled() && !subscriber.ignoreCancelled()) {
+                        continue;
+                    }
+                    SubscriberStats.State state = subscriber.stats().getState();
+                    if (state == SubscriberStats.State.DEMOTED) {
+                        demotedExecutor().execute(() -> deliver(topic, subscriber, payload));
+                    } else if (state == SubscriberStats.State.ACTIVE) {
+                        if (scopes[i] == null) {
+                            scopes[i] = new DispatchScope();
+                        }
+                        scopes[i].advance();
+                        DispatchScope.enter(scopes[i]);
+                        if (!deliver(topic, subscriber, payload)) {
+                            failed[i] = true;
+                        }
+                    }
+                }
+            }
+        } finally {
+            DispatchScope.restore(outer);
+        }
+        int failures = 0;
+        for (boolean failure : failed) {
+            if (failure) {
+                failures++;
+            }
+        }
+        return new BatchResult(payloads.length - failures, failures);
+    }
+
+    /**
+     * Publishes a batch one payload at a time through {@link #publish(String, Payload)}. Used by subclasses
+     * that dispatch on other threads and must keep their own queueing and ordering guarantees.
+     */
+    protected BatchResult publishEach(String topic, Collection<? extends Payload> payloads) {
+        int succeeded = 0;
+        int failed = 0;
+        for (Payload payload : payloads) {
+            try {
+                publish(topic, payload);
+                succeeded++;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Bus refused batched event for topic '{}'", topic, e);
+                failed++;
+            }
+        }
+        return new BatchResult(succeeded, failed);
+    }
+
+    private boolean deliver(String topic, Subscriber subscriber, Payload payload) {
+        LOGGER.trace("Delivering event to subscriber {} on topic '{}'", subscriber.uuid(), topic);
+        long start = timingEnabled ? System.nanoTime() : 0L;
+        try {
+            subscriber.listener().accept(payload);
+            return true;
+        } catch (Exception e) {
+            LOGGER.error(
+                    "Subscriber {} threw while handling topic '{}'",
+                    subscriber.uuid(),
+                    topic,
+                    e);
+            deadLetter(new DeadLetter(topic, subscriber.uuid(), payload, e, 1, subscriber.listener()));
+            return false;
+        } finally {
+            if (start != 0L) {
+                recordTiming(topic, subscriber, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void recordTiming(String topic, Subscriber subscriber, long nanos) {
+        TimeBudget.Action action = subscriber.stats().record(nanos);
+        if (action == null) {
+            return;
+        }
+        TimeBudget budget = subscriber.stats().getBudget();
+        switch (action) {
+            case LOG -> LOGGER.warn(
+                    "Subscriber {} on topic '{}' exceeded its {} ms budget {} times in a row (last run {} us)",
+                    subscriber.uuid(), topic, budget.budget().toMillis(), budget.maxViolations(), nanos / 1_000L);
+            case DEMOTE_ASYNC -> {
+                LOGGER.warn("Demoting slow subscriber {} on topic '{}' to asynchronous delivery", subscriber.uuid(), topic);
+                subscriber.stats().setState(SubscriberStats.State.DEMOTED);
+            }
+            case QUARANTINE -> {
+                LOGGER.warn("Quarantining slow subscriber {} on topic '{}'", subscriber.uuid(), topic);
+                subscriber.stats().setState(SubscriberStats.State.QUARANTINED);
+            }
+        }
+    }
+
+    public Optional<SubscriberStats> getSubscriberStats(UUID subscriberUuid) {
+        return Optional.ofNullable(subscribersById.get(subscriberUuid)).map(Subscriber::stats);
+    }
+
+    /**
+     * Returns a latency percentile across every subscriber currently receiving the topic, where
+     * {@code percentile} is in {@code [0, 100]}, for example {@code 99} for the 99th percentile.
+     *
+     * @throws IllegalArgumentException when {@code percentile} is outside {@code [0, 100]}
+     */
+    public Duration getTopicLatencyPercentile(String topic, double percentile) {
+        LatencyHistogram[] histograms = Arrays.stream(subscribersOf(topic))
+                .map(subscriber -> subscriber.stats().getLatency())
+                .toArray(LatencyHistogram[]::new);
+        return LatencyHistogram.percentile(percentile, histograms);
+    }
+
+    /**
+     * Sets the time budget for one subscriber, or {@code null} to remove it. Setting a budget enables timing.
+     *
+     * @return {@code false} when no such subscriber is registered
+     */
+    public boolean setTimeBudget(UUID subscriberUuid, TimeBudget budget) {
+        Subscriber subscriber = subscribersById.get(subscriberUuid);
+        if (subscriber == null) {
+            return false;
+        }
+        subscriber.stats().setBudget(budget);
+        if (budget != null) {
+            timingEnabled = true;
+        }
+        return true;
+    }
+
+    /**
+     * Sets the time budget applied to subscribers registered from now on. Setting a budget enables timing.
+     */
+    public void setDefaultTimeBudget(TimeBudget defaultTimeBudget) {
+        this.defaultTimeBudget = defaultTimeBudget;
+        if (defaultTimeBudget != null) {
+            timingEnabled = true;
+        }
+    }
+
+    /**
+     * Returns a demoted or quarantined subscriber to normal, synchronous delivery.
+     */
+    public boolean reinstate(UUID subscriberUuid) {
+        Subscriber subscriber = subscribersById.get(subscriberUuid);
+        if (subscriber == null) {
+            return false;
+        }
+        subscriber.stats().setState(SubscriberStats.State.ACTIVE);
+        LOGGER.info("Reinstated subscriber {}", subscriberUuid);
+        return true;
+    }
+
+    /**
+     * Enables or disables per-subscriber timing, which is off by default. Latency statistics stay empty and
+     * budgets are not enforced while timing is disabled.
+     */
+    public void setTimingEnabled(boolean timingEnabled) {
+        this.timingEnabled = timingEnabled;
+    }
+
+    /**
+     * Merges bursts of events on the topic that share a key attribute, delivering one event per key and window.
+     * Merged events are delivered from the bus's coalescing thread. Pass {@code null} to stop coalescing the
+     * topic; events already held are still delivered when their window closes.
+     */
+    public void configureCoalescing(String topic, CoalescingPolicy policy) {
+        coalescer.configure(Objects.requireNonNull(topic, "topic"), policy);
+        if (policy == null) {
+            LOGGER.info("Disabled coalescing for topic '{}'", topic);
+        } else {
+            LOGGER.info("Coalescing topic '{}' by '{}' over {} ms", topic, policy.keyAttribute(), policy.window().toMillis());
+        }
+    }
+
+    /**
+     * Delivers every event currently held for coalescing without waiting for its window.
+     */
+    public void flushCoalesced() {
+        coalescer.flushAll();
+    }
+
+    /**
+     * Number of events that were merged into an earlier event instead of being delivered on their own.
+     */
+    public long getCoalescedCount() {
+        return coalescer.getCoalescedCount();
+    }
+
+    public int getPendingCoalescedCount() {
+        return coalescer.getPendingCount();
+    }
+
+    private void deliverCoalesced(String topic, Payload payload) {
+        Subscriber[] listeners = subscribersOf(topic);
+        if (listeners.length == 0) {
+            LOGGER.debug("No listeners for coalesced event on topic '{}'", topic);
+            return;
+        }
+        deliverAll(topic, listeners, payload);
+    }
+
+    private ExecutorService demotedExecutor() {
+        ExecutorService executor = demotedExecutor;
+        if (executor == null) {
+            synchronized (writeLock) {
+                executor = demotedExecutor;
+                if (executor == null) {
+                    AtomicInteger counter = new AtomicInteger();
+                    executor = Executors.newCachedThreadPool(runnable -> {
+                        Thread thread = new Thread(runnable, "composer-demoted-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    demotedExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private ExecutorService deadLetterExecutor() {
+        ExecutorService executor = deadLetterExecutor;
+        if (executor == null) {
+            synchronized (writeLock) {
+                executor = deadLetterExecutor;
+                if (executor == null) {
+                    // One thread keeps dead letters in the order the failures happened.
+                    executor = Executors.newSingleThreadExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "composer-dead-letter");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    deadLetterExecutor = executor;
+                }
             }
-            LOGGER.trace("Delivering event to subscriber {} on topic '{}'", subscriber.uuid(), topic);
+        }
+        return executor;
+    }
+
+    /**
+     * Publishes the failure to the dead-letter topic from the bus's dead-letter thread.
+     */
+    @Override
+    public void deadLetter(DeadLetter letter) {
+        String target = deadLetterTopic;
+        if (target == null || target.equals(letter.topic())) {
+            return;
+        }
+        Payload failed = letter.payload();
+        if (failed == null || failed.engine() == null) {
+            LOGGER.warn("Cannot dead-letter failure on topic '{}' because the payload has no engine", letter.topic());
+            return;
+        }
+        LOGGER.debug("Routing failure of subscriber {} on topic '{}' to dead-letter topic '{}'", letter.subscriberId(), letter.topic(), target);
+        // Dead-letter subscribers run on their own thread, so a failure does not add their work to the publisher's.
+        Payload deadLetter = new DefaultPayload(failed.engine()).with(PayloadKeys.DEAD_LETTER, letter);
+        deadLetterExecutor().execute(() -> {
             try {
-                subscriber.listener().accept(payload);
-            } catch (Exception e) {
-                LOGGER.error(
-                        "Subscriber {} threw while handling topic '{}'",
-                        subscriber.uuid(),
-                        topic,
-                        e);
+                publish(target, deadLetter);
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to publish dead letter for topic '{}' to '{}'", letter.topic(), target, e);
+            }
+        });
+    }
+
+    public String getDeadLetterTopic() {
+        return deadLetterTopic;
+    }
+
+    /**
+     * Sets the topic failed deliveries are routed to, or {@code null} to only log failures.
+     */
+    public void setDeadLetterTopic(String deadLetterTopic) {
+        this.deadLetterTopic = deadLetterTopic;
+    }
+
+    // Must hold the write lock.
+    private Topic intern(String name) {
+        Topic existing = topics.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        internAll(List.of(name));
+        return topics.get(name);
+    }
+
+    // Must hold the write lock. Adds every name not interned yet, doubling the table's capacity when it is
+    // full so interning n topics copies O(n) slots in total.
+    private void internAll(Collection<String> names) {
+        List<String> missing = names.stream().filter(name -> !topics.containsKey(name)).distinct().toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        TopicTable current = table;
+        int base = current.size;
+        int size = base + missing.size();
+        Topic[] grownTopics = current.topics;
+        AtomicReferenceArray<Subscriber[]> grownSlots = current.slots;
+        if (size > grownTopics.length) {
+            int capacity = Math.max(size, Math.max(16, grownTopics.length * 2));
+            grownTopics = Arrays.copyOf(current.topics, capacity);
+            grownSlots = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < base; i++) {
+                grownSlots.set(i, current.slots.get(i));
+            }
+        }
+        // Slots past the published size are invisible to readers, so they can be filled in place.
+        for (int i = 0; i < missing.size(); i++) {
+            grownTopics[base + i] = new Topic(missing.get(i), base + i);
+            grownSlots.set(base + i, NO_SUBSCRIBERS);
+        }
+        // Publish the table before the handles, so a handle's id is always valid in the table a reader sees.
+        table = new TopicTable(grownTopics, grownSlots, size);
+        for (int i = base; i < size; i++) {
+            topics.put(grownTopics[i].name(), grownTopics[i]);
+            uninterned.remove(grownTopics[i].name());
+            LOGGER.debug("Interned topic '{}' with id {}", grownTopics[i].name(), i);
+        }
+    }
+
+    // Must hold the write lock.
+    private void refresh(Topic topic) {
+        table.slots.set(topic.id(), matching(topic.name()));
+    }
+
+    // Must hold the write lock.
+    private Subscriber[] matching(String name) {
+        Subscriber[] direct = exact.getOrDefault(name, NO_SUBSCRIBERS);
+        if (patterns.isEmpty()) {
+            return direct;
+        }
+        List<Subscriber> matches = new ArrayList<>(Arrays.asList(direct));
+        patterns.match(name, matches);
+        if (matches.isEmpty()) {
+            return NO_SUBSCRIBERS;
+        }
+        // Stable sort keeps exact subscribers ahead of wildcard subscribers of equal priority.
+        matches.sort(BY_PRIORITY);
+        return matches.toArray(Subscriber[]::new);
+    }
+
+    // Must hold the write lock. Only topics a changed pattern matches can have a different snapshot.
+    private void refreshMatching(List<String> changedPatterns) {
+        uninterned.clear();
+        TopicTable current = table;
+        for (int i = 0; i < current.size; i++) {
+            Topic topic = current.topics[i];
+            for (String pattern : changedPatterns) {
+                if (TopicTrie.matches(pattern, topic.name())) {
+                    refresh(topic);
+                    break;
+                }
             }
         }
     }
+
+    // Topics and slots may have spare capacity; only the first size entries are in use.
+    private record TopicTable(Topic[] topics, AtomicReferenceArray<Subscriber[]> slots, int size) {
+    }
 }
@@ -0,0 +1,50 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+/**
+ * The dispatch of one event on the current thread. {@link DefaultEventBus} enters a new scope before it hands an
+ * event to its subscribers, advances it before each subscriber runs and leaves it once the last one returned, so
+ * a subscriber can tell which dispatch it belongs to and whether other subscribers ran since it last looked.
+ * Subscribers called outside a bus dispatch, or handed off to another thread, see no scope.
+ */
+public final class DispatchScope {
+
+    private static final ThreadLocal<DispatchScope> CURRENT = new ThreadLocal<>();
+
+    private int delivery;
+
+    DispatchScope() {
+    }
+
+    /**
+     * Returns the dispatch the current thread is delivering, or {@code null} outside of one.
+     */
+    public static DispatchScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns how many subscribers this dispatch has started so far, including the running one.
+     */
+    public int getDelivery() {
+        return delivery;
+    }
+
+    void advance() {
+        delivery++;
+    }
+
+    // Makes the scope current and returns the one it replaces, which the caller must restore.
+    static DispatchScope enter(DispatchScope scope) {
+        DispatchScope outer = CURRENT.get();
+        CURRENT.set(scope);
+        return outer;
+    }
+
+    static void restore(DispatchScope outer) {
+        if (outer == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(outer);
+        }
+    }
+}
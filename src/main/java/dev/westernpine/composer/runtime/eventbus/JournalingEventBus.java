@@ -0,0 +1,162 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+import dev.westernpine.composer.api.Engine;
+import dev.westernpine.composer.api.EventBus;
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.model.event.BatchResult;
+import dev.westernpine.composer.model.event.DeadLetter;
+import dev.westernpine.composer.model.event.Topic;
+import dev.westernpine.composer.model.payload.DefaultPayload;
+import dev.westernpine.composer.model.subscriber.Subscription;
+import dev.westernpine.composer.runtime.journal.EventJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Event bus stage that appends every published event to an {@link EventJournal} before handing it to the
+ * wrapped bus. Journaled traffic can later be replayed into an engine, for crash recovery or to run
+ * production events against new workflow versions.
+ */
+public class JournalingEventBus implements EventBus, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JournalingEventBus.class);
+
+    private final EventBus delegate;
+    private final EventJournal journal;
+
+    public JournalingEventBus(EventBus delegate, EventJournal journal) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.journal = Objects.requireNonNull(journal, "journal");
+    }
+
+    @Override
+    public UUID subscribe(String topic, int priority, boolean ignoreCancelled, Consumer<Payload> listener) {
+        return delegate.subscribe(topic, priority, ignoreCancelled, listener);
+    }
+
+    @Override
+    public void unsubscribe(String topic, UUID subscriberUuid) {
+        delegate.unsubscribe(topic, subscriberUuid);
+    }
+
+    @Override
+    public List<UUID> subscribeAll(List<Subscription> subscriptions) {
+        return delegate.subscribeAll(subscriptions);
+    }
+
+    @Override
+    public void unsubscribeAll(Map<String, ? extends Collection<UUID>> subscribers) {
+        delegate.unsubscribeAll(subscribers);
+    }
+
+    @Override
+    public Topic topic(String name) {
+        return delegate.topic(name);
+    }
+
+    @Override
+    public void publish(String topic, Payload payload) {
+        journal.append(topic, payload);
+        delegate.publish(topic, payload);
+    }
+
+    @Override
+    public void publish(Topic topic, Payload payload) {
+        journal.append(topic.name(), payload);
+        delegate.publish(topic, payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(String topic, Payload payload) {
+        journal.append(topic, payload);
+        return delegate.publishAsync(topic, payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(Topic topic, Payload payload) {
+        journal.append(topic.name(), payload);
+        return delegate.publishAsync(topic, payload);
+    }
+
+    @Override
+    public BatchResult publishAll(String topic, Collection<? extends Payload> payloads) {
+        for (Payload payload : payloads) {
+            journal.append(topic, payload);
+        }
+        return delegate.publishAll(topic, payloads);
+    }
+
+    @Override
+    public void deadLetter(DeadLetter letter) {
+        delegate.deadLetter(letter);
+    }
+
+    /**
+     * Republishes every journaled event at or after the offset into the engine's event bus.
+     *
+     * @return the number of events replayed
+     */
+    public long replay(Engine engine, long fromOffset) {
+        LOGGER.info("Replaying journal from offset {}", fromOffset);
+        AtomicLong replayed = new AtomicLong();
+        EventBus target = replayTarget(engine);
+        journal.read(fromOffset, record -> {
+            target.publish(record.topic(), toPayload(engine, record));
+            replayed.incrementAndGet();
+        });
+        LOGGER.info("Replayed {} journaled event(s) from offset {}", replayed.get(), fromOffset);
+        return replayed.get();
+    }
+
+    /**
+     * Republishes every event journaled at or after the instant into the engine's event bus.
+     *
+     * @return the number of events replayed
+     */
+    public long replay(Engine engine, Instant from) {
+        LOGGER.info("Replaying journal from {}", from);
+        AtomicLong replayed = new AtomicLong();
+        EventBus target = replayTarget(engine);
+        journal.read(from, record -> {
+            target.publish(record.topic(), toPayload(engine, record));
+            replayed.incrementAndGet();
+        });
+        LOGGER.info("Replayed {} journaled event(s) from {}", replayed.get(), from);
+        return replayed.get();
+    }
+
+    public EventBus getDelegate() {
+        return delegate;
+    }
+
+    public EventJournal getJournal() {
+        return journal;
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+
+    // Replaying into this bus would append every event to the journal a second time.
+    private EventBus replayTarget(Engine engine) {
+        EventBus target = engine.getEventBus();
+        return target == this ? delegate : target;
+    }
+
+    private static Payload toPayload(Engine engine, EventJournal.JournalRecord record) {
+        DefaultPayload payload = new DefaultPayload(engine, record.attributes());
+        payload.setCancelled(record.cancelled());
+        return payload;
+    }
+}
@@ -0,0 +1,19 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+/**
+ * Decides what a bounded event queue does with a new event when it is already full.
+ */
+public enum OverflowPolicy {
+
+    /** Blocks the publishing thread until the queue has room. */
+    BLOCK,
+
+    /** Discards the event being published. */
+    DROP_NEWEST,
+
+    /** Discards the oldest queued event to make room for the new one. */
+    DROP_OLDEST,
+
+    /** Throws a {@link java.util.concurrent.RejectedExecutionException} back to the publisher. */
+    REJECT
+}
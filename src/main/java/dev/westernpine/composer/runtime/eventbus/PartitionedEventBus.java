@@ -0,0 +1,134 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.model.event.BatchResult;
+import dev.westernpine.composer.model.event.Topic;
+import dev.westernpine.composer.model.subscriber.Subscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event bus that routes events to single-threaded lanes by the hash of a payload attribute. Events sharing a
+ * partition key are always handled in publish order, while events for different keys run in parallel.
+ * Events without the key attribute are partitioned by topic instead.
+ */
+public class PartitionedEventBus extends DefaultEventBus implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedEventBus.class);
+
+    private final String partitionKey;
+    private final ThreadPoolExecutor[] lanes;
+
+    public PartitionedEventBus(String partitionKey) {
+        this(partitionKey, Runtime.getRuntime().availableProcessors());
+    }
+
+    public PartitionedEventBus(String partitionKey, int laneCount) {
+        this.partitionKey = Objects.requireNonNull(partitionKey, "partitionKey");
+        if (laneCount <= 0) {
+            throw new IllegalArgumentException("laneCount must be positive");
+        }
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String name = "composer-lane-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        LOGGER.info("Created partitioned event bus with {} lanes keyed by payload attribute '{}'", laneCount, partitionKey);
+    }
+
+    @Override
+    public void publish(String topic, Payload payload) {
+        submit(topic, subscribersOf(topic), payload);
+    }
+
+    @Override
+    public void publish(Topic topic, Payload payload) {
+        submit(topic.name(), subscribersOf(topic), payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(String topic, Payload payload) {
+        return submit(topic, subscribersOf(topic), payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(Topic topic, Payload payload) {
+        return submit(topic.name(), subscribersOf(topic), payload);
+    }
+
+    private CompletableFuture<Void> submit(String topic, Subscriber[] listeners, Payload payload) {
+        if (listeners.length == 0) {
+            LOGGER.debug("No listeners to publish to for topic '{}'", topic);
+            return CompletableFuture.completedFuture(null);
+        }
+        int lane = laneFor(topic, payload);
+        LOGGER.trace("Routing event on topic '{}' to lane {}", topic, lane);
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        try {
+            lanes[lane].execute(() -> {
+                try {
+                    dispatch(topic, listeners, payload);
+                    completion.complete(null);
+                } catch (Throwable t) {
+                    completion.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.error("Lane {} rejected event for topic '{}'", lane, topic, e);
+            completion.completeExceptionally(e);
+        }
+        return completion;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int getLaneQueueDepth(int lane) {
+        return lanes[lane].getQueue().size();
+    }
+
+    public int[] getLaneQueueDepths() {
+        int[] depths = new int[lanes.length];
+        for (int i = 0; i < lanes.length; i++) {
+            depths[i] = lanes[i].getQueue().size();
+        }
+        return depths;
+    }
+
+    @Override
+    public BatchResult publishAll(String topic, Collection<? extends Payload> payloads) {
+        return publishEach(topic, payloads);
+    }
+
+    @Override
+    public void close() {
+        LOGGER.info("Shutting down {} partition lanes", lanes.length);
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    private int laneFor(String topic, Payload payload) {
+        Object key = payload.get(partitionKey).orElse(null);
+        int hash = key != null ? key.hashCode() : Objects.hashCode(topic);
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, lanes.length);
+    }
+}
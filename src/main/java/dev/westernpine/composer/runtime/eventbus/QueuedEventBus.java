@@ -0,0 +1,255 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.model.event.BatchResult;
+import dev.westernpine.composer.model.event.Topic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Event bus where publishers enqueue into a bounded queue per topic and a pool of dispatcher threads drains
+ * them. Each topic is drained by at most one dispatcher at a time, so events on a topic keep publish order.
+ * When a queue is full its {@link OverflowPolicy} decides whether to block, drop, or reject.
+ * <p>
+ * Subscribers must not publish to a full topic using {@link OverflowPolicy#BLOCK}, since they would wait on
+ * the dispatcher they are running on.
+ */
+public class QueuedEventBus extends DefaultEventBus implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueuedEventBus.class);
+
+    private static final int DRAIN_BATCH = 64;
+
+    private final ExecutorService dispatchers;
+    private final int defaultCapacity;
+    private final OverflowPolicy defaultPolicy;
+    private final Map<String, TopicSettings> topicSettings = new ConcurrentHashMap<>();
+    private final Map<String, TopicQueue> queues = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public QueuedEventBus(int defaultCapacity, OverflowPolicy defaultPolicy) {
+        this(defaultCapacity, defaultPolicy, Runtime.getRuntime().availableProcessors());
+    }
+
+    public QueuedEventBus(int defaultCapacity, OverflowPolicy defaultPolicy, int dispatcherThreads) {
+        if (defaultCapacity <= 0) {
+            throw new IllegalArgumentException("defaultCapacity must be positive");
+        }
+        this.defaultCapacity = defaultCapacity;
+        this.defaultPolicy = Objects.requireNonNull(defaultPolicy, "defaultPolicy");
+        AtomicInteger counter = new AtomicInteger();
+        this.dispatchers = Executors.newFixedThreadPool(dispatcherThreads, runnable -> {
+            Thread thread = new Thread(runnable, "composer-dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        LOGGER.info("Created queued event bus with capacity {} and policy {} using {} dispatcher threads", defaultCapacity, defaultPolicy, dispatcherThreads);
+    }
+
+    /**
+     * Overrides the capacity and overflow policy for one topic. Must be called before the first event is
+     * published to that topic.
+     */
+    public void configureTopic(String topic, int capacity, OverflowPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        topicSettings.put(Objects.requireNonNull(topic, "topic"), new TopicSettings(capacity, Objects.requireNonNull(policy, "policy")));
+        if (queues.containsKey(topic)) {
+            LOGGER.warn("Topic '{}' already has a queue; new settings apply only after the bus is recreated", topic);
+        }
+        LOGGER.info("Configured topic '{}' with capacity {} and policy {}", topic, capacity, policy);
+    }
+
+    @Override
+    public void publish(String topic, Payload payload) {
+        enqueue(topic, payload, null);
+    }
+
+    @Override
+    public void publish(Topic topic, Payload payload) {
+        enqueue(topic.name(), payload, null);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(String topic, Payload payload) {
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        enqueue(topic, payload, completion);
+        return completion;
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(Topic topic, Payload payload) {
+        return publishAsync(topic.name(), payload);
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getDroppedCount(String topic) {
+        TopicQueue queue = queues.get(topic);
+        return queue == null ? 0L : queue.dropped.sum();
+    }
+
+    public long getRejectedCount(String topic) {
+        TopicQueue queue = queues.get(topic);
+        return queue == null ? 0L : queue.rejected.sum();
+    }
+
+    public int getQueueDepth(String topic) {
+        TopicQueue queue = queues.get(topic);
+        return queue == null ? 0 : queue.events.size();
+    }
+
+    @Override
+    public BatchResult publishAll(String topic, Collection<? extends Payload> payloads) {
+        return publishEach(topic, payloads);
+    }
+
+    @Override
+    public void close() {
+        LOGGER.info("Shutting down queued event bus dispatchers");
+        dispatchers.shutdown();
+    }
+
+    private void enqueue(String topic, Payload payload, CompletableFuture<Void> completion) {
+        // Like a direct publish, an event nobody listens to is done; this also keeps unheard topics queueless.
+        if (subscribersOf(topic).length == 0) {
+            LOGGER.debug("No listeners to publish to for topic '{}'", topic);
+            if (completion != null) {
+                completion.complete(null);
+            }
+            return;
+        }
+        TopicQueue queue = queues.computeIfAbsent(topic, this::createQueue);
+        QueuedEvent event = new QueuedEvent(payload, completion);
+        switch (queue.policy) {
+            case BLOCK -> {
+                try {
+                    queue.events.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOGGER.warn("Interrupted while waiting for room on topic '{}'; dropping event", topic);
+                    drop(queue, event);
+                    return;
+                }
+            }
+            case DROP_NEWEST -> {
+                if (!queue.events.offer(event)) {
+                    LOGGER.debug("Queue for topic '{}' is full; dropping newest event", topic);
+                    drop(queue, event);
+                    return;
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!queue.events.offer(event)) {
+                    QueuedEvent oldest = queue.events.poll();
+                    if (oldest != null) {
+                        LOGGER.debug("Queue for topic '{}' is full; dropping oldest event", topic);
+                        drop(queue, oldest);
+                    }
+                }
+            }
+            case REJECT -> {
+                if (!queue.events.offer(event)) {
+                    queue.rejected.increment();
+                    rejected.increment();
+                    RejectedExecutionException rejection = new RejectedExecutionException("Event queue for topic '" + topic + "' is full");
+                    if (completion != null) {
+                        completion.completeExceptionally(rejection);
+                    }
+                    throw rejection;
+                }
+            }
+        }
+        schedule(topic, queue);
+    }
+
+    private void drop(TopicQueue queue, QueuedEvent event) {
+        queue.dropped.increment();
+        dropped.increment();
+        if (event.completion() != null) {
+            event.completion().cancel(false);
+        }
+    }
+
+    private void schedule(String topic, TopicQueue queue) {
+        if (queue.draining.compareAndSet(false, true)) {
+            try {
+                dispatchers.execute(() -> drain(topic, queue));
+            } catch (RejectedExecutionException e) {
+                queue.draining.set(false);
+                LOGGER.error("Dispatcher pool rejected drain task for topic '{}'", topic, e);
+            }
+        }
+    }
+
+    private void drain(String topic, TopicQueue queue) {
+        int handled = 0;
+        QueuedEvent event;
+        while (handled < DRAIN_BATCH && (event = queue.events.poll()) != null) {
+            handled++;
+            try {
+                dispatch(topic, subscribersOf(topic), event.payload());
+                if (event.completion() != null) {
+                    event.completion().complete(null);
+                }
+            } catch (Throwable t) {
+                LOGGER.error("Dispatcher failed while handling topic '{}'", topic, t);
+                if (event.completion() != null) {
+                    event.completion().completeExceptionally(t);
+                }
+            }
+        }
+        queue.draining.set(false);
+        // Re-check after releasing the flag so an event enqueued during the release is not stranded.
+        if (!queue.events.isEmpty()) {
+            schedule(topic, queue);
+        }
+    }
+
+    private TopicQueue createQueue(String topic) {
+        TopicSettings settings = topicSettings.getOrDefault(topic, new TopicSettings(defaultCapacity, defaultPolicy));
+        LOGGER.debug("Creating queue for topic '{}' with capacity {} and policy {}", topic, settings.capacity(), settings.policy());
+        return new TopicQueue(new ArrayBlockingQueue<>(settings.capacity()), settings.policy());
+    }
+
+    private record TopicSettings(int capacity, OverflowPolicy policy) {
+    }
+
+    private record QueuedEvent(Payload payload, CompletableFuture<Void> completion) {
+    }
+
+    private static final class TopicQueue {
+        private final BlockingQueue<QueuedEvent> events;
+        private final OverflowPolicy policy;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private TopicQueue(BlockingQueue<QueuedEvent> events, OverflowPolicy policy) {
+            this.events = events;
+            this.policy = policy;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+import dev.westernpine.composer.api.Engine;
+import dev.westernpine.composer.api.EventBus;
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.model.event.DeadLetter;
+import dev.westernpine.composer.model.event.EventKeys;
+import dev.westernpine.composer.model.payload.PayloadKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Subscribes to a dead-letter topic and redelivers each failed payload to the subscriber or action that threw,
+ * with exponential backoff, until it succeeds or the attempt limit is reached. Retries run on the scheduler's
+ * own thread, so they never run on, or add latency to, a publishing thread, and a slow retry cannot delay the
+ * engine timer's other tasks.
+ */
+public class RetryScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryScheduler.class);
+
+    private final Engine engine;
+    private final String deadLetterTopic;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final double multiplier;
+    private final Duration maxBackoff;
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    private UUID subscription;
+    private volatile ScheduledExecutorService executor;
+
+    public RetryScheduler(Engine engine) {
+        this(engine, EventKeys.DEAD_LETTER, 5, Duration.ofMillis(100), 2.0, Duration.ofMinutes(1));
+    }
+
+    public RetryScheduler(Engine engine, String deadLetterTopic, int maxAttempts, Duration initialBackoff, double multiplier, Duration maxBackoff) {
+        this.engine = Objects.requireNonNull(engine, "engine");
+        this.deadLetterTopic = Objects.requireNonNull(deadLetterTopic, "deadLetterTopic");
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        if (multiplier < 1.0) {
+            throw new IllegalArgumentException("multiplier must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Objects.requireNonNull(initialBackoff, "initialBackoff");
+        this.multiplier = multiplier;
+        this.maxBackoff = Objects.requireNonNull(maxBackoff, "maxBackoff");
+    }
+
+    public synchronized void start() {
+        if (subscription != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "composer-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        EventBus eventBus = engine.getEventBus();
+        subscription = eventBus.subscribe(deadLetterTopic, Integer.MAX_VALUE, true, payload -> payload
+                .get(PayloadKeys.DEAD_LETTER, DeadLetter.class)
+                .ifPresent(this::schedule));
+        LOGGER.info("Retry scheduler listening on '{}' with up to {} attempts", deadLetterTopic, maxAttempts);
+    }
+
+    /**
+     * Stops listening for dead letters. Retries that are still waiting for their backoff are dropped.
+     */
+    public synchronized void stop() {
+        if (subscription == null) {
+            return;
+        }
+        engine.getEventBus().unsubscribe(deadLetterTopic, subscription);
+        subscription = null;
+        executor.shutdownNow();
+        executor = null;
+        LOGGER.info("Retry scheduler stopped listening on '{}'", deadLetterTopic);
+    }
+
+    public long getScheduledCount() {
+        return scheduled.sum();
+    }
+
+    public long getRecoveredCount() {
+        return recovered.sum();
+    }
+
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    private void schedule(DeadLetter letter) {
+        if (letter.attempts() >= maxAttempts) {
+            exhausted.increment();
+            LOGGER.error(
+                    "Giving up on subscriber {} for topic '{}' after {} attempt(s)",
+                    letter.subscriberId(),
+                    letter.topic(),
+                    letter.attempts(),
+                    letter.error());
+            return;
+        }
+        ScheduledExecutorService current = executor;
+        if (current == null) {
+            LOGGER.debug("Dropping retry of subscriber {} for topic '{}' because the scheduler is stopped", letter.subscriberId(), letter.topic());
+            return;
+        }
+        long delay = backoff(letter.attempts()).toMillis();
+        LOGGER.debug("Retrying subscriber {} for topic '{}' in {} ms (attempt {})", letter.subscriberId(), letter.topic(), delay, letter.attempts() + 1);
+        try {
+            current.schedule(() -> retry(letter), delay, TimeUnit.MILLISECONDS);
+            scheduled.increment();
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Dropping retry of subscriber {} for topic '{}' because the scheduler is stopped", letter.subscriberId(), letter.topic());
+        }
+    }
+
+    private void retry(DeadLetter letter) {
+        Payload payload = letter.payload();
+        try {
+            letter.target().accept(payload);
+            recovered.increment();
+            LOGGER.info("Retry of subscriber {} for topic '{}' succeeded on attempt {}", letter.subscriberId(), letter.topic(), letter.attempts() + 1);
+        } catch (Exception e) {
+            LOGGER.warn("Retry of subscriber {} for topic '{}' failed on attempt {}", letter.subscriberId(), letter.topic(), letter.attempts() + 1, e);
+            schedule(letter.nextAttempt(e));
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        double millis = initialBackoff.toMillis() * Math.pow(multiplier, attempts - 1);
+        return millis >= maxBackoff.toMillis() ? maxBackoff : Duration.ofMillis((long) millis);
+    }
+}
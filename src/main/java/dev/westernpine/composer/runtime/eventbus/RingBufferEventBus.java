@@ -0,0 +1,209 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.model.event.BatchResult;
+import dev.westernpine.composer.model.event.Topic;
+import dev.westernpine.composer.model.subscriber.Subscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Disruptor-style event bus backed by a preallocated ring of slots. Publishers claim a sequence, write the
+ * slot in place and mark it published; a single consumer thread processes every contiguous run of published
+ * sequences as one batch, reusing the resolved subscriber snapshot while the topic stays the same. Events
+ * published with a {@link Topic} handle resolve their subscribers by array index; events published by name use
+ * the same lookup as {@link DefaultEventBus#publish(String, Payload)} and never intern the name.
+ * <p>
+ * {@link #publish(String, Payload)} does not allocate once the bus is running. Events are delivered in
+ * sequence order, so this bus is best suited to one or a few very hot topics.
+ * <p>
+ * Events published from the consumer thread itself, for example by a subscriber, a dead letter or an
+ * interpreter notification, are delivered inline instead of through the ring: the consumer would otherwise
+ * wait on itself when the ring is full.
+ */
+public class RingBufferEventBus extends DefaultEventBus implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RingBufferEventBus.class);
+
+    private final int mask;
+    // Each slot holds the topic name, plus its handle when the event was published with one.
+    private final String[] names;
+    private final Topic[] topics;
+    private final Payload[] payloads;
+    private final CompletableFuture<?>[] completions;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong(-1L);
+    private final AtomicLong consumed = new AtomicLong(-1L);
+    private final WaitStrategy waitStrategy;
+    private final Thread consumer;
+    private volatile boolean running = true;
+
+    public RingBufferEventBus(int capacity, WaitStrategy waitStrategy) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a positive power of two");
+        }
+        this.mask = capacity - 1;
+        this.names = new String[capacity];
+        this.topics = new Topic[capacity];
+        this.payloads = new Payload[capacity];
+        this.completions = new CompletableFuture<?>[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1L);
+        }
+        this.waitStrategy = Objects.requireNonNull(waitStrategy, "waitStrategy");
+        this.consumer = new Thread(this::consume, "composer-ring-consumer");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+        LOGGER.info("Created ring buffer event bus with {} slots using {} wait strategy", capacity, waitStrategy);
+    }
+
+    @Override
+    public void publish(String topic, Payload payload) {
+        claimAndPublish(topic, null, payload, null);
+    }
+
+    @Override
+    public void publish(Topic topic, Payload payload) {
+        claimAndPublish(topic.name(), topic, payload, null);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(String topic, Payload payload) {
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        claimAndPublish(topic, null, payload, completion);
+        return completion;
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(Topic topic, Payload payload) {
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        claimAndPublish(topic.name(), topic, payload, completion);
+        return completion;
+    }
+
+    public long getPublishedSequence() {
+        return claimed.get();
+    }
+
+    public long getConsumedSequence() {
+        return consumed.get();
+    }
+
+    /**
+     * Stops the consumer. Producers waiting for a free slot fail with an {@link IllegalStateException}, and
+     * futures of events that were not delivered complete exceptionally.
+     */
+    @Override
+    public BatchResult publishAll(String topic, Collection<? extends Payload> payloads) {
+        return publishEach(topic, payloads);
+    }
+
+    @Override
+    public void close() {
+        LOGGER.info("Stopping ring buffer consumer");
+        running = false;
+        consumer.interrupt();
+    }
+
+    private void claimAndPublish(String name, Topic topic, Payload payload, CompletableFuture<?> completion) {
+        if (!running) {
+            throw closed();
+        }
+        if (Thread.currentThread() == consumer) {
+            deliver(name, topic == null ? subscribersOf(name) : subscribersOf(topic), payload, completion);
+            return;
+        }
+        long sequence = claimed.incrementAndGet();
+        long wrapPoint = sequence - topics.length;
+        while (wrapPoint > consumed.get()) {
+            if (!running) {
+                throw closed();
+            }
+            waitStrategy.idle();
+        }
+        int index = (int) sequence & mask;
+        names[index] = name;
+        topics[index] = topic;
+        payloads[index] = payload;
+        completions[index] = completion;
+        // Volatile write publishes the plain slot writes above to the consumer.
+        published.set(index, sequence);
+        if (!running && completion != null) {
+            // The consumer may have stopped before reaching this slot; completing twice is a no-op.
+            completion.completeExceptionally(closed());
+        }
+    }
+
+    private void deliver(String topic, Subscriber[] subscribers, Payload payload, CompletableFuture<?> completion) {
+        try {
+            dispatch(topic, subscribers, payload);
+            if (completion != null) {
+                completion.complete(null);
+            }
+        } catch (Throwable t) {
+            LOGGER.error("Ring buffer consumer failed while handling topic '{}'", topic, t);
+            if (completion != null) {
+                completion.completeExceptionally(t);
+            }
+        }
+    }
+
+    private void failPending() {
+        for (int index = 0; index < completions.length; index++) {
+            CompletableFuture<?> completion = completions[index];
+            if (completion != null) {
+                completions[index] = null;
+                completion.completeExceptionally(closed());
+            }
+        }
+    }
+
+    private static IllegalStateException closed() {
+        return new IllegalStateException("Ring buffer event bus is closed");
+    }
+
+    private void consume() {
+        long next = 0L;
+        while (running) {
+            if (published.get((int) next & mask) != next) {
+                waitStrategy.idle();
+                continue;
+            }
+            long last = next;
+            while (published.get((int) (last + 1) & mask) == last + 1 && last + 1 - next < topics.length) {
+                last++;
+            }
+            String batchName = null;
+            Topic batchTopic = null;
+            Subscriber[] batchSubscribers = null;
+            for (long sequence = next; sequence <= last; sequence++) {
+                int index = (int) sequence & mask;
+                String name = names[index];
+                Topic topic = topics[index];
+                Payload payload = payloads[index];
+                CompletableFuture<?> completion = completions[index];
+                names[index] = null;
+                topics[index] = null;
+                payloads[index] = null;
+                completions[index] = null;
+                if (topic != batchTopic || !name.equals(batchName)) {
+                    batchName = name;
+                    batchTopic = topic;
+                    batchSubscribers = topic == null ? subscribersOf(name) : subscribersOf(topic);
+                }
+                deliver(name, batchSubscribers, payload, completion);
+            }
+            consumed.set(last);
+            next = last + 1;
+        }
+        failPending();
+        LOGGER.info("Ring buffer consumer stopped at sequence {}", consumed.get());
+    }
+}
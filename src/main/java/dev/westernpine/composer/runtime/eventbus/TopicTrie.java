@@ -0,0 +1,138 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+import dev.westernpine.composer.model.subscriber.Subscriber;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Trie of wildcard topic subscriptions. Topics are split into segments on {@code '.'}; a {@code *} segment
+ * matches exactly one segment and a {@code #} segment matches zero or more segments.
+ * <p>
+ * Not thread safe; {@link DefaultEventBus} only touches it while holding its write lock.
+ */
+final class TopicTrie {
+
+    static final String SEPARATOR = "\\.";
+    static final String SINGLE_WILDCARD = "*";
+    static final String MULTI_WILDCARD = "#";
+
+    private final Node root = new Node();
+    private int size;
+
+    static boolean isPattern(String topic) {
+        if (topic == null) {
+            return false;
+        }
+        for (String segment : topic.split(SEPARATOR, -1)) {
+            if (segment.equals(SINGLE_WILDCARD) || segment.equals(MULTI_WILDCARD)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the pattern matches the concrete topic, with the same rules as {@link #match}.
+     */
+    static boolean matches(String pattern, String topic) {
+        return matches(pattern.split(SEPARATOR, -1), 0, topic.split(SEPARATOR, -1), 0);
+    }
+
+    private static boolean matches(String[] pattern, int p, String[] segments, int s) {
+        if (p == pattern.length) {
+            return s == segments.length;
+        }
+        if (pattern[p].equals(MULTI_WILDCARD)) {
+            for (int consumed = s; consumed <= segments.length; consumed++) {
+                if (matches(pattern, p + 1, segments, consumed)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (s == segments.length) {
+            return false;
+        }
+        return (pattern[p].equals(SINGLE_WILDCARD) || pattern[p].equals(segments[s]))
+                && matches(pattern, p + 1, segments, s + 1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void add(String pattern, Subscriber subscriber) {
+        Node node = root;
+        for (String segment : pattern.split(SEPARATOR, -1)) {
+            node = node.children.computeIfAbsent(segment, key -> new Node());
+        }
+        node.subscribers.add(subscriber);
+        size++;
+    }
+
+    boolean remove(String pattern, UUID subscriberUuid) {
+        Node node = root;
+        for (String segment : pattern.split(SEPARATOR, -1)) {
+            node = node.children.get(segment);
+            if (node == null) {
+                return false;
+            }
+        }
+        boolean removed = node.subscribers.removeIf(subscriber -> subscriber.uuid().equals(subscriberUuid));
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+
+    /**
+     * Collects every pattern subscriber whose pattern matches the concrete topic.
+     */
+    void match(String topic, List<Subscriber> into) {
+        if (size == 0) {
+            return;
+        }
+        match(root, topic.split(SEPARATOR, -1), 0, into);
+    }
+
+    private void match(Node node, String[] segments, int index, List<Subscriber> into) {
+        Node multi = node.children.get(MULTI_WILDCARD);
+        if (multi != null) {
+            // '#' may swallow any number of remaining segments, including none.
+            for (int consumed = index; consumed <= segments.length; consumed++) {
+                matchTail(multi, segments, consumed, into);
+            }
+        }
+        if (index == segments.length) {
+            return;
+        }
+        Node exact = node.children.get(segments[index]);
+        if (exact != null) {
+            matchTail(exact, segments, index + 1, into);
+        }
+        Node single = node.children.get(SINGLE_WILDCARD);
+        if (single != null) {
+            matchTail(single, segments, index + 1, into);
+        }
+    }
+
+    private void matchTail(Node node, String[] segments, int index, List<Subscriber> into) {
+        if (index == segments.length) {
+            for (Subscriber subscriber : node.subscribers) {
+                if (!into.contains(subscriber)) {
+                    into.add(subscriber);
+                }
+            }
+        }
+        match(node, segments, index, into);
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<Subscriber> subscribers = new ArrayList<>();
+    }
+}
@@ -0,0 +1,37 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How ring buffer producers and consumers wait for a slot or sequence to become available.
+ */
+public enum WaitStrategy {
+
+    /** Spins on the CPU. Lowest latency, burns a full core while idle. */
+    BUSY_SPIN {
+        @Override
+        void idle() {
+            Thread.onSpinWait();
+        }
+    },
+
+    /** Yields the thread between checks. Low latency with some CPU left for other threads. */
+    YIELD {
+        @Override
+        void idle() {
+            Thread.yield();
+        }
+    },
+
+    /** Parks the thread briefly between checks. Highest latency, near-zero CPU while idle. */
+    PARK {
+        @Override
+        void idle() {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    };
+
+    private static final long PARK_NANOS = 50_000L;
+
+    abstract void idle();
+}
@@ -36,11 +36,15 @@ public class DefaultPredicateFactory implements PredicateFactory {
         }
 
         Optional<Predicate> createdPredicate = instantiatePredicate(nonNullPredicate);
-        createdPredicate.ifPresent(predicate -> {
+        // Workflows compiled concurrently may race here; keep the first instance so equal definitions share one.
+        return createdPredicate.map(predicate -> {
+            Predicate existing = predicateCache.putIfAbsent(nonNullPredicate, predicate);
+            if (existing != null) {
+                return existing;
+            }
             LOGGER.info("Caching new predicate '{}' for workflow '{}'", predicate.getClass().getName(), nonNullPredicate.id());
-            predicateCache.put(nonNullPredicate, predicate);
+            return predicate;
         });
-        return createdPredicate;
     }
 
     private Optional<Predicate> instantiatePredicate(WorkflowPredicate workflowPredicate) {
@@ -0,0 +1,17 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import java.util.Objects;
+
+/**
+ * Limits how many executions of a workflow, or of a group of workflows, may run their actions at once.
+ * Executions beyond {@code maxConcurrent} are handled according to {@code saturation}.
+ */
+public record Bulkhead(int maxConcurrent, SaturationPolicy saturation) {
+
+    public Bulkhead {
+        Objects.requireNonNull(saturation, "saturation");
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The permits and counters behind one {@link Bulkhead}. Every workflow mapped to the same group shares one limiter.
+ */
+final class BulkheadLimiter {
+
+    enum Admission {
+        ACQUIRED,
+        INLINE,
+        SHED,
+        TIMED_OUT
+    }
+
+    private final String group;
+    private final Bulkhead bulkhead;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder inline = new LongAdder();
+
+    BulkheadLimiter(String group, Bulkhead bulkhead) {
+        this.group = group;
+        this.bulkhead = bulkhead;
+        this.permits = new Semaphore(bulkhead.maxConcurrent());
+    }
+
+    /**
+     * Admits the execution without blocking, or returns {@code null} when it has to queue for a permit.
+     */
+    Admission tryAcquire() {
+        if (permits.tryAcquire()) {
+            admitted.increment();
+            return Admission.ACQUIRED;
+        }
+        return switch (bulkhead.saturation()) {
+            case SHED -> {
+                shed.increment();
+                yield Admission.SHED;
+            }
+            case INLINE -> {
+                inline.increment();
+                yield Admission.INLINE;
+            }
+            case QUEUE -> null;
+        };
+    }
+
+    /**
+     * Admits the execution, blocking for a permit when the policy is {@link SaturationPolicy#QUEUE}.
+     */
+    Admission acquire(Deadline deadline) {
+        Admission admission = tryAcquire();
+        return admission != null ? admission : await(deadline);
+    }
+
+    Admission await(Deadline deadline) {
+        queued.increment();
+        waiting.incrementAndGet();
+        try {
+            if (deadline.isBounded()) {
+                if (!permits.tryAcquire(deadline.remainingNanos(), TimeUnit.NANOSECONDS)) {
+                    shed.increment();
+                    return Admission.TIMED_OUT;
+                }
+            } else {
+                permits.acquire();
+            }
+            admitted.increment();
+            return Admission.ACQUIRED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            shed.increment();
+            return Admission.SHED;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    void release(Admission admission) {
+        if (admission == Admission.ACQUIRED) {
+            permits.release();
+        }
+    }
+
+    BulkheadStats stats() {
+        int maxConcurrent = bulkhead.maxConcurrent();
+        return new BulkheadStats(
+                group,
+                maxConcurrent,
+                Math.max(0, maxConcurrent - permits.availablePermits()),
+                waiting.get(),
+                admitted.sum(),
+                queued.sum(),
+                shed.sum(),
+                inline.sum());
+    }
+}
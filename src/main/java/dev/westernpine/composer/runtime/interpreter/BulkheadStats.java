@@ -0,0 +1,20 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+/**
+ * A snapshot of one bulkhead: its limit, the executions holding or waiting for a permit, and how every
+ * execution so far was admitted.
+ *
+ * @param admitted executions that got a permit, directly or after queueing
+ * @param queued   executions that had to wait for a permit
+ * @param shed     executions skipped because no permit was free, or none freed up before their deadline
+ * @param inline   executions that ran without a permit
+ */
+public record BulkheadStats(String group,
+                            int maxConcurrent,
+                            int active,
+                            int waiting,
+                            long admitted,
+                            long queued,
+                            long shed,
+                            long inline) {
+}
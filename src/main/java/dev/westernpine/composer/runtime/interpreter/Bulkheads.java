@@ -0,0 +1,66 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bulkhead limits by group, the group of each workflow, and the {@link BulkheadLimiter} created for each group
+ * on first use. A workflow that is not assigned to a group is its own group.
+ */
+final class Bulkheads {
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Map<String, String> groups = new ConcurrentHashMap<>();
+    private final Map<String, BulkheadLimiter> limiters = new ConcurrentHashMap<>();
+    private volatile Bulkhead defaultBulkhead;
+
+    Optional<Bulkhead> getDefault() {
+        return Optional.ofNullable(defaultBulkhead);
+    }
+
+    synchronized void setDefault(Bulkhead bulkhead) {
+        this.defaultBulkhead = bulkhead;
+        limiters.keySet().removeIf(group -> !bulkheads.containsKey(group));
+    }
+
+    synchronized void set(String group, Bulkhead bulkhead) {
+        Objects.requireNonNull(group, "group");
+        if (bulkhead == null) {
+            bulkheads.remove(group);
+        } else {
+            bulkheads.put(group, bulkhead);
+        }
+        limiters.remove(group);
+    }
+
+    void setGroup(String workflowId, String group) {
+        Objects.requireNonNull(workflowId, "workflowId");
+        if (group == null) {
+            groups.remove(workflowId);
+        } else {
+            groups.put(workflowId, group);
+        }
+    }
+
+    Optional<BulkheadStats> stats(String group) {
+        return Optional.ofNullable(limiters.get(group)).map(BulkheadLimiter::stats);
+    }
+
+    /**
+     * Returns the limiter of the workflow's group, or {@code null} when the workflow has no bulkhead.
+     */
+    BulkheadLimiter limiter(String workflowId) {
+        if (defaultBulkhead == null && bulkheads.isEmpty()) {
+            return null;
+        }
+        String group = groups.getOrDefault(workflowId, workflowId);
+        BulkheadLimiter limiter = limiters.get(group);
+        if (limiter != null) {
+            return limiter;
+        }
+        Bulkhead bulkhead = bulkheads.getOrDefault(group, defaultBulkhead);
+        return bulkhead == null ? null : limiters.computeIfAbsent(group, key -> new BulkheadLimiter(key, bulkhead));
+    }
+}
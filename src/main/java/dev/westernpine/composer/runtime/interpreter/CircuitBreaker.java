@@ -0,0 +1,158 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Failure accounting and state of one workflow's circuit breaker. The hot path only reads the state and bumps
+ * counters; transitions happen under the breaker's lock and are reported to the listener after it is released.
+ */
+final class CircuitBreaker {
+
+    interface Listener {
+        void onTransition(String workflowId, CircuitState from, CircuitState to, double failureRatio);
+    }
+
+    private final String workflowId;
+    private final CircuitBreakerPolicy policy;
+    private final long coolDownNanos;
+    private final Listener listener;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final LongAdder skipped = new LongAdder();
+    private volatile CircuitState state = CircuitState.CLOSED;
+    private volatile long openedAt;
+
+    // Executions admitted while half-open, and when the current round of probe permits was handed out.
+    private final AtomicInteger probes = new AtomicInteger();
+    private volatile long probesFrom;
+
+    CircuitBreaker(String workflowId, CircuitBreakerPolicy policy, Listener listener) {
+        this.workflowId = workflowId;
+        this.policy = policy;
+        this.coolDownNanos = policy.coolDown().toNanos();
+        this.listener = listener;
+    }
+
+    CircuitState getState() {
+        return state;
+    }
+
+    long getSkipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * Returns {@code false} when the execution must be skipped because the circuit is open, or because it is
+     * half-open and every probe permit has been handed out.
+     */
+    boolean allow() {
+        CircuitState current = state;
+        if (current == CircuitState.CLOSED) {
+            return true;
+        }
+        if (current == CircuitState.OPEN) {
+            if (System.nanoTime() - openedAt < coolDownNanos) {
+                skipped.increment();
+                return false;
+            }
+            transition(CircuitState.OPEN, CircuitState.HALF_OPEN);
+        }
+        return probe();
+    }
+
+    // Admits at most probeCalls executions while half-open. Probes whose predicates did not pass never report
+    // a call, so after each cool-down the permits that did not report are handed out again.
+    private boolean probe() {
+        int limit = policy.probeCalls();
+        for (int taken = probes.get(); taken < limit; taken = probes.get()) {
+            if (probes.compareAndSet(taken, taken + 1)) {
+                return true;
+            }
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (state == CircuitState.CLOSED) {
+                return true;
+            }
+            if (state == CircuitState.HALF_OPEN && now - probesFrom >= coolDownNanos) {
+                probesFrom = now;
+                probes.set(calls.get() + 1);
+                return true;
+            }
+        }
+        skipped.increment();
+        return false;
+    }
+
+    void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    /**
+     * Counts one execution that ran the workflow's actions or failed in its predicates, and closes the current
+     * window or probe run once it is full.
+     */
+    void recordCall() {
+        CircuitState current = state;
+        if (current == CircuitState.OPEN) {
+            return;
+        }
+        int limit = current == CircuitState.CLOSED ? policy.windowSize() : policy.probeCalls();
+        if (calls.incrementAndGet() < limit) {
+            return;
+        }
+        double ratio;
+        CircuitState next;
+        synchronized (this) {
+            int counted = calls.get();
+            if (state != current || counted < limit) {
+                return;
+            }
+            ratio = Math.min(1.0, (double) failures.get() / counted);
+            calls.set(0);
+            failures.set(0);
+            if (ratio >= policy.failureRatio()) {
+                next = CircuitState.OPEN;
+                openedAt = System.nanoTime();
+            } else {
+                next = CircuitState.CLOSED;
+            }
+            state = next;
+        }
+        if (next != current) {
+            listener.onTransition(workflowId, current, next, ratio);
+        }
+    }
+
+    /**
+     * Closes the circuit regardless of its state.
+     */
+    void reset() {
+        CircuitState previous;
+        synchronized (this) {
+            previous = state;
+            calls.set(0);
+            failures.set(0);
+            state = CircuitState.CLOSED;
+        }
+        if (previous != CircuitState.CLOSED) {
+            listener.onTransition(workflowId, previous, CircuitState.CLOSED, 0.0);
+        }
+    }
+
+    private void transition(CircuitState from, CircuitState to) {
+        synchronized (this) {
+            if (state != from) {
+                return;
+            }
+            calls.set(0);
+            failures.set(0);
+            probes.set(0);
+            probesFrom = System.nanoTime();
+            state = to;
+        }
+        listener.onTransition(workflowId, from, to, 0.0);
+    }
+}
@@ -0,0 +1,31 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * When a workflow's circuit breaker opens and how it recovers. Failures are counted over consecutive windows
+ * of {@code windowSize} executions that reached the workflow's actions or whose predicates threw; a window with
+ * at least {@code failureRatio} failures per execution opens the circuit. After {@code coolDown} the circuit
+ * half-opens and admits only {@code probeCalls} executions, which decide, by the same ratio, whether it closes
+ * or opens again. Permits of admitted executions that never reached the actions are handed out again after
+ * each further {@code coolDown}.
+ */
+public record CircuitBreakerPolicy(double failureRatio, int windowSize, Duration coolDown, int probeCalls) {
+
+    public CircuitBreakerPolicy {
+        Objects.requireNonNull(coolDown, "coolDown");
+        if (!(failureRatio > 0.0 && failureRatio <= 1.0)) {
+            throw new IllegalArgumentException("failureRatio must be in (0, 1]");
+        }
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize must be at least 1");
+        }
+        if (coolDown.isNegative()) {
+            throw new IllegalArgumentException("coolDown must not be negative");
+        }
+        if (probeCalls < 1) {
+            throw new IllegalArgumentException("probeCalls must be at least 1");
+        }
+    }
+}
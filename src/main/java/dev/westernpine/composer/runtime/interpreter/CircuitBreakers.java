@@ -0,0 +1,105 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import dev.westernpine.composer.api.Engine;
+import dev.westernpine.composer.model.event.EventKeys;
+import dev.westernpine.composer.model.payload.DefaultPayload;
+import dev.westernpine.composer.model.payload.PayloadKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circuit breaker policies by workflow id and the default policy, which build the {@link CircuitBreaker} of
+ * each compiled plan and publish its state transitions. Also holds the calls the execution path makes into a
+ * plan's breaker.
+ */
+final class CircuitBreakers {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreakers.class);
+
+    private final Engine engine;
+    private final Map<String, CircuitBreakerPolicy> policies = new ConcurrentHashMap<>();
+    private volatile CircuitBreakerPolicy defaultPolicy;
+
+    CircuitBreakers(Engine engine) {
+        this.engine = engine;
+    }
+
+    Optional<CircuitBreakerPolicy> getDefault() {
+        return Optional.ofNullable(defaultPolicy);
+    }
+
+    void setDefault(CircuitBreakerPolicy policy) {
+        this.defaultPolicy = policy;
+    }
+
+    boolean hasOwnPolicy(String workflowId) {
+        return policies.containsKey(workflowId);
+    }
+
+    void set(String workflowId, CircuitBreakerPolicy policy) {
+        Objects.requireNonNull(workflowId, "workflowId");
+        if (policy == null) {
+            policies.remove(workflowId);
+        } else {
+            policies.put(workflowId, policy);
+        }
+    }
+
+    /**
+     * Returns a new, closed breaker for the workflow, or {@code null} when it has no policy.
+     */
+    CircuitBreaker create(String workflowId) {
+        CircuitBreakerPolicy policy = policies.getOrDefault(workflowId, defaultPolicy);
+        return policy == null ? null : new CircuitBreaker(workflowId, policy, this::transition);
+    }
+
+    // Whether the workflow's circuit breaker lets this execution through.
+    static boolean allowed(WorkflowPlan plan) {
+        CircuitBreaker breaker = plan.getBreaker();
+        if (breaker == null || breaker.allow()) {
+            return true;
+        }
+        LOGGER.debug("Skipping workflow '{}' because its circuit is open", plan.getWorkflowId());
+        return false;
+    }
+
+    static void recordFailure(WorkflowPlan plan) {
+        CircuitBreaker breaker = plan.getBreaker();
+        if (breaker != null) {
+            breaker.recordFailure();
+        }
+    }
+
+    static void recordCall(WorkflowPlan plan) {
+        CircuitBreaker breaker = plan.getBreaker();
+        if (breaker != null) {
+            breaker.recordCall();
+        }
+    }
+
+    private void transition(String workflowId, CircuitState from, CircuitState to, double failureRatio) {
+        DefaultPayload payload = new DefaultPayload(engine).with(PayloadKeys.WORKFLOW_ID, workflowId);
+        String topic;
+        switch (to) {
+            case OPEN -> {
+                LOGGER.warn("Opened circuit of workflow '{}' after a failure ratio of {}", workflowId, failureRatio);
+                payload.with(PayloadKeys.CIRCUIT_FAILURE_RATIO, failureRatio);
+                topic = EventKeys.WORKFLOW_CIRCUIT_OPENED;
+            }
+            case HALF_OPEN -> {
+                LOGGER.info("Half-opened circuit of workflow '{}' to probe it", workflowId);
+                topic = EventKeys.WORKFLOW_CIRCUIT_HALF_OPENED;
+            }
+            default -> {
+                LOGGER.info("Closed circuit of workflow '{}' (was {})", workflowId, from);
+                topic = EventKeys.WORKFLOW_CIRCUIT_CLOSED;
+            }
+        }
+        engine.getEventBus().publish(topic, payload);
+    }
+}
@@ -0,0 +1,16 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+/**
+ * State of a workflow's circuit breaker.
+ */
+public enum CircuitState {
+
+    /** The workflow handles every event while its failure ratio is measured. */
+    CLOSED,
+
+    /** The workflow is skipped entirely until its cool-down has passed. */
+    OPEN,
+
+    /** The workflow handles events again until enough probe executions decide whether to close or reopen. */
+    HALF_OPEN
+}
@@ -0,0 +1,89 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.model.payload.PayloadKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The point by which one workflow execution must finish: the earlier of the workflow's own deadline, counted
+ * from when handling starts, and the event's {@link PayloadKeys#EVENT_DEADLINE}. Expiry is checked
+ * cooperatively between steps and reported once per execution.
+ */
+final class Deadline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Deadline.class);
+
+    /** No deadline; never expires and allocates nothing per event. */
+    static final Deadline NONE = new Deadline(0L, false);
+
+    private final long nanos;
+    private final boolean bounded;
+    private final AtomicBoolean reported = new AtomicBoolean();
+
+    private Deadline(long nanos, boolean bounded) {
+        this.nanos = nanos;
+        this.bounded = bounded;
+    }
+
+    /**
+     * @param workflowNanos the workflow's own deadline in nanoseconds, or a negative value for none
+     */
+    static Deadline of(long workflowNanos, Payload payload) {
+        Object eventDeadline = payload.attributes().get(PayloadKeys.EVENT_DEADLINE);
+        if (eventDeadline == null && workflowNanos < 0) {
+            return NONE;
+        }
+        long now = System.nanoTime();
+        long remaining = workflowNanos;
+        if (eventDeadline != null) {
+            long untilEvent = untilEvent(eventDeadline);
+            if (untilEvent >= 0 && (remaining < 0 || untilEvent < remaining)) {
+                remaining = untilEvent;
+            }
+        }
+        return remaining < 0 ? NONE : new Deadline(now + remaining, true);
+    }
+
+    // Wall clock deadlines are converted once to the monotonic clock, so later checks only read nanoTime.
+    // Returns -1 for values that are not a deadline.
+    private static long untilEvent(Object eventDeadline) {
+        long epochMillis;
+        if (eventDeadline instanceof Instant instant) {
+            epochMillis = instant.toEpochMilli();
+        } else if (eventDeadline instanceof Number number) {
+            epochMillis = number.longValue();
+        } else {
+            LOGGER.warn("Ignoring attribute '{}' of type {}; expected an Instant or epoch milliseconds",
+                    PayloadKeys.EVENT_DEADLINE, eventDeadline.getClass().getName());
+            return -1L;
+        }
+        long untilMillis = epochMillis - System.currentTimeMillis();
+        if (untilMillis <= 0) {
+            return 0L;
+        }
+        return untilMillis >= Long.MAX_VALUE / 2_000_000L ? Long.MAX_VALUE / 2 : untilMillis * 1_000_000L;
+    }
+
+    boolean isBounded() {
+        return bounded;
+    }
+
+    boolean isExpired() {
+        return bounded && System.nanoTime() - nanos >= 0;
+    }
+
+    long remainingNanos() {
+        return bounded ? Math.max(0L, nanos - System.nanoTime()) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns {@code true} the first time it is called, so parallel steps that all notice the expiry report it once.
+     */
+    boolean markReported() {
+        return reported.compareAndSet(false, true);
+    }
+}
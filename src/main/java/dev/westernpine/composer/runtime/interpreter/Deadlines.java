@@ -0,0 +1,126 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.model.payload.PayloadKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Configured workflow deadlines, the {@link Deadline} of each execution derived from them, and the timeouts
+ * counted per workflow. Asynchronous steps are cancelled at their deadline from one shared scheduler thread.
+ */
+final class Deadlines {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Deadlines.class);
+
+    // Deadlines in nanoseconds; negative means none.
+    private final Map<String, Long> workflowDeadlines = new ConcurrentHashMap<>();
+    private volatile long defaultDeadline = -1L;
+    private final Map<String, LongAdder> timeouts = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService scheduler;
+
+    Optional<Duration> getDefault() {
+        long nanos = defaultDeadline;
+        return nanos < 0 ? Optional.empty() : Optional.of(Duration.ofNanos(nanos));
+    }
+
+    void setDefault(Duration deadline) {
+        this.defaultDeadline = toNanos(deadline);
+    }
+
+    Optional<Duration> get(String workflowId) {
+        return Optional.ofNullable(workflowDeadlines.get(workflowId)).map(Duration::ofNanos);
+    }
+
+    void set(String workflowId, Duration deadline) {
+        Objects.requireNonNull(workflowId, "workflowId");
+        if (deadline == null) {
+            workflowDeadlines.remove(workflowId);
+        } else {
+            workflowDeadlines.put(workflowId, toNanos(deadline));
+        }
+    }
+
+    /**
+     * Returns the deadline for one execution of the workflow: the earlier of its configured deadline and the
+     * event's {@link PayloadKeys#EVENT_DEADLINE}, or {@link Deadline#NONE} when neither is set.
+     */
+    Deadline of(WorkflowPlan plan, Payload payload) {
+        long workflowNanos = workflowDeadlines.isEmpty()
+                ? defaultDeadline
+                : workflowDeadlines.getOrDefault(plan.getWorkflowId(), defaultDeadline);
+        return Deadline.of(workflowNanos, payload);
+    }
+
+    /**
+     * Records that a workflow execution ran past its deadline and cancels the event, once per execution.
+     */
+    void timedOut(WorkflowPlan plan, Payload payload, Deadline deadline) {
+        if (!deadline.markReported()) {
+            return;
+        }
+        payload.setCancelled(true);
+        timeouts.computeIfAbsent(plan.getWorkflowId(), id -> new LongAdder()).increment();
+        LOGGER.warn("Workflow '{}' ran past its deadline; skipping its remaining steps and cancelling the event", plan.getWorkflowId());
+    }
+
+    long getTimeoutCount(String workflowId) {
+        LongAdder count = timeouts.get(workflowId);
+        return count == null ? 0L : count.sum();
+    }
+
+    long getTimeoutCount() {
+        return timeouts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    // Cancels the step when the deadline passes. Cancelling the returned future also cancels the step's own
+    // future, which is how an asynchronous action learns it should stop.
+    <T> CompletableFuture<T> bound(CompletableFuture<T> future, Deadline deadline) {
+        if (!deadline.isBounded() || future.isDone()) {
+            return future;
+        }
+        ScheduledFuture<?> expiry = scheduler().schedule(() -> future.cancel(true), deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        future.whenComplete((ignored, error) -> expiry.cancel(false));
+        return future;
+    }
+
+    private static long toNanos(Duration deadline) {
+        if (deadline == null) {
+            return -1L;
+        }
+        if (deadline.isNegative() || deadline.isZero()) {
+            throw new IllegalArgumentException("deadline must be positive");
+        }
+        return deadline.toNanos();
+    }
+
+    private ScheduledExecutorService scheduler() {
+        ScheduledExecutorService current = scheduler;
+        if (current == null) {
+            synchronized (this) {
+                current = scheduler;
+                if (current == null) {
+                    current = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "composer-deadline");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    scheduler = current;
+                }
+            }
+        }
+        return current;
+    }
+}
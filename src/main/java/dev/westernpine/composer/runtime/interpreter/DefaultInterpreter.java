@@ -1,9 +1,11 @@
 package dev.westernpine.composer.runtime.interpreter;
 
 import dev.westernpine.composer.api.*;
+import dev.westernpine.composer.model.event.DeadLetter;
 import dev.westernpine.composer.model.event.EventKeys;
 import dev.westernpine.composer.model.payload.DefaultPayload;
 import dev.westernpine.composer.model.payload.PayloadKeys;
+import dev.westernpine.composer.model.subscriber.Subscription;
 import dev.westernpine.composer.model.workflow.Workflow;
 import dev.westernpine.composer.model.workflow.WorkflowAction;
 import dev.westernpine.composer.model.workflow.WorkflowBinding;
@@ -11,145 +13,481 @@ import dev.westernpine.composer.model.workflow.WorkflowPredicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.BiConsumer;
-import java.util.function.Consumer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 public class DefaultInterpreter implements Interpreter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultInterpreter.class);
 
-    private static final BiConsumer<Workflow, Payload> EVENT_HANDLER_LOGIC = (workflow, payload) -> {
-        Engine engine = payload.engine();
-        Interpreter interpreter = engine.getInterpreter();
-        LOGGER.debug("Handling event for workflow '{}'", workflow.getId());
+    private final Engine engine;
 
-        List<Predicate> predicates = Optional
-                .ofNullable(workflow.getWorkflowPredicates())
-                .orElse(List.of())
-                .stream()
-                .map(interpreter::getPredicate)
-                .flatMap(Optional::stream)
-                .toList();
+    private final Map<String, Workflow> workflows;
 
-        boolean shouldExecute = true;
-        for (Predicate predicate : predicates) {
-            try {
-                boolean result = predicate.evaluate(payload);
-                LOGGER.debug(
-                        "Predicate {} evaluated to {} for workflow '{}'",
-                        predicate.getClass().getName(),
-                        result,
-                        workflow.getId());
-                if (!result) {
-                    shouldExecute = false;
-                    break;
-                }
-            } catch (Exception e) {
-                LOGGER.error(
-                        "Predicate {} threw while evaluating for workflow '{}'",
-                        predicate.getClass().getName(),
-                        workflow.getId(),
-                        e);
-                shouldExecute = false;
+    // Serializes every change to the catalogue, single or batched, so concurrent adds, removes and replaces of
+    // the same workflow cannot interleave their subscriptions. Not this, which lazy executor setup also takes
+    // on dispatch threads that a change may be waiting for while it publishes.
+    private final Object catalogueLock = new Object();
+
+    // Compiled plans by workflow id. Subscribers capture the reference, so handling an event never looks a plan up.
+    // In lazy mode the reference stays empty until the first event for the workflow arrives.
+    private final Map<String, AtomicReference<WorkflowPlan>> plans;
+    private volatile boolean lazyCompilation;
+
+    // Shared predicate networks by topic, and the workflows that were registered through them.
+    private final Map<String, PredicateNetwork> networks;
+    private final Set<String> networkedWorkflows;
+    private volatile boolean sharedPredicateNetwork;
+
+    private volatile boolean adaptivePredicateOrdering;
+    private volatile int reorderInterval = 1024;
+
+    private volatile Executor actionExecutor;
+
+    private volatile boolean nonBlockingPipeline;
+
+    private volatile WorkflowCodeGenerator codeGenerator;
+
+    private final Deadlines deadlines = new Deadlines();
+    private final Bulkheads bulkheads = new Bulkheads();
+    private final CircuitBreakers circuitBreakers;
+    private final PredicateMemo predicateMemo = new PredicateMemo();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public DefaultInterpreter(Engine engine) {
+        this.engine = Objects.requireNonNull(engine, "engine");
+        this.workflows = new ConcurrentHashMap<>();
+        this.plans = new ConcurrentHashMap<>();
+        this.networks = new ConcurrentHashMap<>();
+        this.networkedWorkflows = ConcurrentHashMap.newKeySet();
+        this.circuitBreakers = new CircuitBreakers(this.engine);
+    }
+
+    private void handleEvent(WorkflowPlan plan, Binding binding, Payload payload) {
+        LOGGER.debug("Handling event for workflow '{}'", plan.getWorkflowId());
+        if (!CircuitBreakers.allowed(plan)) {
+            return;
+        }
+        Deadline deadline = deadline(plan, payload);
+        if (nonBlockingPipeline && plan.isAsync()) {
+            handleEventAsync(plan, binding, payload, deadline);
+            return;
+        }
+        WorkflowCode code = plan.getCode();
+        boolean passed;
+        if (code != null && deadline == Deadline.NONE && !adaptivePredicateOrdering && !predicateMemo.isEnabled()) {
+            passed = code.test(payload);
+        } else {
+            passed = adaptivePredicateOrdering
+                    ? evaluateAdaptively(plan, payload, deadline)
+                    : evaluateInOrder(plan, payload, deadline);
+        }
+        if (!passed) {
+            LOGGER.debug("Skipping workflow '{}' actions because predicate conditions were not met", plan.getWorkflowId());
+            return;
+        }
+        executeActions(plan, binding, payload, deadline);
+        // Actions may have changed the payload, so results remembered for it no longer hold.
+        predicateMemo.invalidate();
+    }
+
+    private boolean evaluateInOrder(WorkflowPlan plan, Payload payload, Deadline deadline) {
+        for (Predicate predicate : plan.getPredicates()) {
+            if (deadline.isExpired()) {
+                timedOut(plan, payload, deadline);
+                return false;
+            }
+            if (!predicateMemo.evaluate(predicate, plan, payload)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean evaluateAdaptively(WorkflowPlan plan, Payload payload, Deadline deadline) {
+        Predicate[] predicates = plan.getPredicates();
+        PredicateOrdering ordering = plan.getOrdering();
+        boolean passed = true;
+        for (int index : ordering.getOrder()) {
+            if (deadline.isExpired()) {
+                timedOut(plan, payload, deadline);
+                passed = false;
                 break;
             }
+            long start = System.nanoTime();
+            boolean result = predicateMemo.evaluate(predicates[index], plan, payload);
+            ordering.record(index, result, System.nanoTime() - start);
+            if (!result) {
+                passed = false;
+                break;
+            }
+        }
+        if (ordering.countEvent(reorderInterval)) {
+            ordering.reorder(plan.getWorkflowId());
         }
-        if(!shouldExecute) {
-            LOGGER.debug("Skipping workflow '{}' actions because predicate conditions were not met", workflow.getId());
+        return passed;
+    }
+
+    /**
+     * Evaluates one predicate of a workflow. A predicate that throws counts as not met.
+     */
+    static boolean evaluate(Predicate predicate, WorkflowPlan plan, Payload payload) {
+        try {
+            boolean result = predicate.evaluate(payload);
+            LOGGER.debug(
+                    "Predicate {} evaluated to {} for workflow '{}'",
+                    predicate.getClass().getName(),
+                    result,
+                    plan.getWorkflowId());
+            return result;
+        } catch (Exception e) {
+            return predicateFailed(predicate, plan, e);
+        }
+    }
+
+    // A throwing predicate ends the execution as a failed call for the circuit breaker.
+    static boolean predicateFailed(Predicate predicate, WorkflowPlan plan, Exception e) {
+        LOGGER.error(
+                "Predicate {} threw while evaluating for workflow '{}'",
+                predicate.getClass().getName(),
+                plan.getWorkflowId(),
+                e);
+        CircuitBreakers.recordFailure(plan);
+        CircuitBreakers.recordCall(plan);
+        return false;
+    }
+
+    /**
+     * Runs the actions of a workflow whose predicates passed, behind the workflow's bulkhead if it has one.
+     */
+    void executeActions(WorkflowPlan plan, Binding binding, Payload payload, Deadline deadline) {
+        BulkheadLimiter limiter = bulkheads.limiter(plan.getWorkflowId());
+        if (limiter == null) {
+            executeStages(plan, binding, payload, deadline);
+            CircuitBreakers.recordCall(plan);
             return;
         }
-        List<Action> actions = Optional
-                .ofNullable(workflow.getWorkflowActions())
-                .orElse(List.of())
-                .stream()
-                .map(interpreter::getAction)
-                .flatMap(Optional::stream)
-                .toList();
-        actions.forEach(action -> {
-            LOGGER.info("Executing workflow '{}' action {}", workflow.getId(), action.getClass().getName());
-            try {
-                action.execute(payload);
-            } catch (Exception e) {
-                LOGGER.error(
-                        "Action {} threw while executing for workflow '{}'",
-                        action.getClass().getName(),
-                        workflow.getId(),
-                        e);
+        BulkheadLimiter.Admission admission = limiter.acquire(deadline);
+        if (!admitted(plan, payload, deadline, admission)) {
+            return;
+        }
+        try {
+            executeStages(plan, binding, payload, deadline);
+        } finally {
+            limiter.release(admission);
+        }
+        CircuitBreakers.recordCall(plan);
+    }
+
+    private boolean admitted(WorkflowPlan plan, Payload payload, Deadline deadline, BulkheadLimiter.Admission admission) {
+        switch (admission) {
+            case SHED -> {
+                LOGGER.debug("Shedding execution of workflow '{}' because its bulkhead is saturated", plan.getWorkflowId());
+                return false;
             }
-        });
-    };
-
-    private static final Consumer<Payload> WORKFLOW_ADDED_HANDLER = (payload) -> {
-        payload.get(PayloadKeys.WORKFLOW_ID, String.class)
-                .flatMap(id -> payload.engine().getInterpreter().getWorkflow(id))
-                .ifPresent(workflow -> {
-                    Engine engine = payload.engine();
-                    Interpreter interpreter = engine.getInterpreter();
-                    EventBus eventBus = engine.getEventBus();
-                    LOGGER.info("Registering bindings for workflow '{}'", workflow.getId());
-                    Optional
-                            .ofNullable(workflow.getWorkflowBindings())
-                            .orElse(List.of())
-                            .stream()
-                            .map(interpreter::getBinding)
-                            .flatMap(Optional::stream)
-                            .forEach(binding -> {
-                                UUID subscriberId = eventBus.subscribe(
-                                        binding.getEvent(),
-                                        binding.getPriority(),
-                                        binding.ignoreCancelled(),
-                                        innerPayload -> EVENT_HANDLER_LOGIC.accept(workflow, innerPayload));
-                                LOGGER.debug("Registered binding '{}' for event '{}' with subscriber id {}", binding.getId(), binding.getEvent(), subscriberId);
-                                binding.setSubscriberId(subscriberId);
-                            });
-                });
-    };
-
-    private static final Consumer<Payload> WORKFLOW_REMOVED_HANDLER = (payload) -> {
-        payload.get(PayloadKeys.WORKFLOW_ID, String.class)
-                .flatMap(id -> payload.engine().getInterpreter().getWorkflow(id))
-                .ifPresent(workflow -> {
-                    Engine engine = payload.engine();
-                    Interpreter interpreter = engine.getInterpreter();
-                    EventBus eventBus = engine.getEventBus();
-                    LOGGER.info("Removing bindings for workflow '{}'", workflow.getId());
-                    Optional
-                            .ofNullable(workflow.getWorkflowBindings())
-                            .orElse(List.of())
-                            .stream()
-                            .map(interpreter::getBinding)
-                            .flatMap(Optional::stream)
-                            .forEach(binding -> {
-                                LOGGER.debug("Unsubscribing binding '{}' from event '{}'", binding.getId(), binding.getEvent());
-                                eventBus.unsubscribe(binding.getEvent(), binding.getSubscriberId());
-                            });
+            case TIMED_OUT -> {
+                timedOut(plan, payload, deadline);
+                return false;
+            }
+            case INLINE -> LOGGER.debug("Running workflow '{}' inline beyond its bulkhead limit", plan.getWorkflowId());
+            default -> {
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs every action of a workflow whose predicates passed, stage by stage. Actions in a parallel stage run
+     * concurrently on the action executor and are joined before the next stage. A failing action is
+     * dead-lettered and does not stop the actions after it. Once the deadline has passed no further stage is
+     * started, and the unfinished actions of a parallel stage are cancelled.
+     */
+    private void executeStages(WorkflowPlan plan, Binding binding, Payload payload, Deadline deadline) {
+        WorkflowCode code = plan.getCode();
+        if (code != null && deadline == Deadline.NONE) {
+            code.run(binding, payload);
+            return;
+        }
+        Action[] actions = plan.getActions();
+        int[] stageStarts = plan.getStageStarts();
+        for (int stage = 0; stage + 1 < stageStarts.length; stage++) {
+            if (deadline.isExpired()) {
+                timedOut(plan, payload, deadline);
+                return;
+            }
+            int start = stageStarts[stage];
+            int end = stageStarts[stage + 1];
+            if (end - start == 1) {
+                executeAction(plan, binding, actions[start], payload, deadline);
+                continue;
+            }
+            LOGGER.debug("Executing {} actions of workflow '{}' in parallel", end - start, plan.getWorkflowId());
+            Executor executor = actionExecutor();
+            List<Future<?>> running = new ArrayList<>(end - start - 1);
+            for (int i = start; i < end - 1; i++) {
+                Action action = actions[i];
+                // Plain tasks rather than CompletableFutures, so cancelling on expiry interrupts the action.
+                FutureTask<Void> task = new FutureTask<>(() -> executeAction(plan, binding, action, payload, deadline), null);
+                running.add(task);
+                executor.execute(task);
+            }
+            // The calling thread takes the last action of the stage itself.
+            executeAction(plan, binding, actions[end - 1], payload, deadline);
+            if (!awaitStage(running, deadline)) {
+                timedOut(plan, payload, deadline);
+                return;
+            }
+        }
+    }
+
+    // Returns false if the deadline passed first, after cancelling the actions still running.
+    private static boolean awaitStage(List<Future<?>> running, Deadline deadline) {
+        boolean interrupted = false;
+        try {
+            for (Future<?> future : running) {
+                while (true) {
+                    try {
+                        if (deadline.isBounded()) {
+                            future.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+                        } else {
+                            future.get();
+                        }
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException | CancellationException e) {
+                        // Failures were already handled by the action itself.
+                        break;
+                    } catch (TimeoutException e) {
+                        running.forEach(task -> task.cancel(true));
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Chains the workflow's predicates and actions without blocking; the subscriber returns as soon as the
+    // first asynchronous step is pending.
+    private void handleEventAsync(WorkflowPlan plan, Binding binding, Payload payload, Deadline deadline) {
+        inFlight.incrementAndGet();
+        evaluateAsync(plan, payload, 0, deadline)
+                .thenCompose(passed -> {
+                    if (!passed) {
+                        LOGGER.debug("Skipping workflow '{}' actions because predicate conditions were not met", plan.getWorkflowId());
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    return executeActionsAsync(plan, binding, payload, deadline);
+                })
+                .whenComplete((ignored, error) -> {
+                    inFlight.decrementAndGet();
+                    if (error != null) {
+                        LOGGER.error("Non-blocking pipeline failed for workflow '{}'", plan.getWorkflowId(), error);
+                    }
                 });
-    };
+    }
 
-    private final Engine engine;
+    private CompletionStage<Boolean> evaluateAsync(WorkflowPlan plan, Payload payload, int from, Deadline deadline) {
+        Predicate[] predicates = plan.getPredicates();
+        for (int index = from; index < predicates.length; index++) {
+            if (deadline.isExpired()) {
+                timedOut(plan, payload, deadline);
+                return CompletableFuture.completedFuture(false);
+            }
+            Predicate predicate = predicates[index];
+            if (!(predicate instanceof AsyncPredicate async)) {
+                if (!evaluate(predicate, plan, payload)) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                continue;
+            }
+            int next = index + 1;
+            return deadlines.bound(start(() -> async.evaluateAsync(payload)), deadline)
+                    .handle((result, error) -> {
+                        if (error != null) {
+                            if (deadline.isExpired()) {
+                                timedOut(plan, payload, deadline);
+                                return false;
+                            }
+                            return predicateFailed(predicate, plan, unwrap(error));
+                        }
+                        LOGGER.debug("Predicate {} evaluated to {} for workflow '{}'", predicate.getClass().getName(), result, plan.getWorkflowId());
+                        return Boolean.TRUE.equals(result);
+                    })
+                    .thenCompose(passed -> passed ? evaluateAsync(plan, payload, next, deadline) : CompletableFuture.completedFuture(false));
+        }
+        return CompletableFuture.completedFuture(true);
+    }
 
-    private final Map<String, Workflow> workflows;
+    // Queued executions wait for their permit on the action executor, never on the thread completing a stage.
+    private CompletionStage<Void> executeActionsAsync(WorkflowPlan plan, Binding binding, Payload payload, Deadline deadline) {
+        BulkheadLimiter limiter = bulkheads.limiter(plan.getWorkflowId());
+        if (limiter == null) {
+            return executeActionsAsync(plan, binding, payload, 0, deadline).thenRun(() -> CircuitBreakers.recordCall(plan));
+        }
+        BulkheadLimiter.Admission immediate = limiter.tryAcquire();
+        CompletableFuture<BulkheadLimiter.Admission> admission = immediate != null
+                ? CompletableFuture.completedFuture(immediate)
+                : CompletableFuture.supplyAsync(() -> limiter.await(deadline), actionExecutor());
+        return admission.thenCompose(admitted -> {
+            if (!admitted(plan, payload, deadline, admitted)) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            return start(() -> executeActionsAsync(plan, binding, payload, 0, deadline))
+                    .whenComplete((ignored, error) -> limiter.release(admitted))
+                    .thenRun(() -> CircuitBreakers.recordCall(plan));
+        });
+    }
 
-    private final UUID workflowAddedHandler;
-    private final UUID workflowRemovedHandler;
+    private CompletionStage<Void> executeActionsAsync(WorkflowPlan plan, Binding binding, Payload payload, int fromStage, Deadline deadline) {
+        Action[] actions = plan.getActions();
+        int[] stageStarts = plan.getStageStarts();
+        for (int stage = fromStage; stage + 1 < stageStarts.length; stage++) {
+            if (deadline.isExpired()) {
+                timedOut(plan, payload, deadline);
+                return CompletableFuture.completedFuture(null);
+            }
+            int start = stageStarts[stage];
+            int end = stageStarts[stage + 1];
+            if (end - start == 1 && !(actions[start] instanceof AsyncAction)) {
+                executeAction(plan, binding, actions[start], payload, deadline);
+                continue;
+            }
+            CompletableFuture<?>[] running = new CompletableFuture<?>[end - start];
+            for (int i = start; i < end; i++) {
+                running[i - start] = startAction(plan, binding, actions[i], payload, end - start > 1, deadline);
+            }
+            int next = stage + 1;
+            return CompletableFuture.allOf(running).thenCompose(ignored -> executeActionsAsync(plan, binding, payload, next, deadline));
+        }
+        return CompletableFuture.completedFuture(null);
+    }
 
-    public DefaultInterpreter(Engine engine) {
-        this.engine = Objects.requireNonNull(engine, "engine");
-        this.workflows = new ConcurrentHashMap<>();
+    // Never completes exceptionally: failures are logged and dead-lettered like synchronous ones.
+    private CompletableFuture<Void> startAction(WorkflowPlan plan, Binding binding, Action action, Payload payload, boolean parallel, Deadline deadline) {
+        LOGGER.info("Executing workflow '{}' action {}", plan.getWorkflowId(), action.getClass().getName());
+        CompletableFuture<Void> started;
+        if (action instanceof AsyncAction async) {
+            started = start(() -> async.executeAsync(payload));
+        } else if (parallel) {
+            started = CompletableFuture.runAsync(() -> action.execute(payload), actionExecutor());
+        } else {
+            started = start(() -> AsyncAction.of(action).executeAsync(payload));
+        }
+        return deadlines.bound(started, deadline).handle((ignored, error) -> {
+            if (error != null) {
+                if (deadline.isExpired()) {
+                    timedOut(plan, payload, deadline);
+                    return null;
+                }
+                actionFailed(plan, binding, action, payload, unwrap(error));
+            }
+            return null;
+        });
+    }
 
-        this.workflowAddedHandler = this.engine.getEventBus()
-                .subscribe(EventKeys.WORKFLOW_ADDED, Integer.MAX_VALUE, true, WORKFLOW_ADDED_HANDLER);
-        LOGGER.debug("Registered workflow added handler with id {}", this.workflowAddedHandler);
-        this.workflowRemovedHandler = this.engine.getEventBus()
-                .subscribe(EventKeys.WORKFLOW_REMOVED, Integer.MAX_VALUE, true, WORKFLOW_REMOVED_HANDLER);
-        LOGGER.debug("Registered workflow removed handler with id {}", this.workflowRemovedHandler);
+    // A stage factory that throws instead of returning a failed stage is treated as a failed stage.
+    private static <T> CompletableFuture<T> start(Supplier<CompletionStage<T>> stage) {
+        try {
+            return stage.get().toCompletableFuture();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Exception unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof Exception exception ? exception : new CompletionException(cause);
+    }
+
+    private void executeAction(WorkflowPlan plan, Binding binding, Action action, Payload payload, Deadline deadline) {
+        executing(plan, action);
+        try {
+            if (deadline.isBounded() && action instanceof AsyncAction async) {
+                awaitAction(plan, async, payload, deadline);
+            } else {
+                action.execute(payload);
+            }
+        } catch (Exception e) {
+            actionFailed(plan, binding, action, payload, e);
+        }
+    }
+
+    static void executing(WorkflowPlan plan, Action action) {
+        LOGGER.info("Executing workflow '{}' action {}", plan.getWorkflowId(), action.getClass().getName());
+    }
+
+    static void actionFailed(WorkflowPlan plan, Binding binding, Action action, Payload payload, Exception e) {
+        LOGGER.error(
+                "Action {} threw while executing for workflow '{}'",
+                action.getClass().getName(),
+                plan.getWorkflowId(),
+                e);
+        CircuitBreakers.recordFailure(plan);
+        // Retries redeliver to this action only, so actions that already succeeded are not repeated.
+        payload.engine().getEventBus().deadLetter(new DeadLetter(binding.getEvent(), binding.getSubscriberId(), payload, e, 1, action::execute));
+    }
+
+    // Waits for an asynchronous action no longer than the deadline, and cancels it if it is still running then.
+    private void awaitAction(WorkflowPlan plan, AsyncAction action, Payload payload, Deadline deadline) throws Exception {
+        CompletableFuture<Void> future = start(() -> action.executeAsync(payload));
+        try {
+            future.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut(plan, payload, deadline);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the deadline for one execution of the workflow: the earlier of its configured deadline and the
+     * event's {@link PayloadKeys#EVENT_DEADLINE}, or {@link Deadline#NONE} when neither is set.
+     */
+    Deadline deadline(WorkflowPlan plan, Payload payload) {
+        return deadlines.of(plan, payload);
+    }
+
+    /**
+     * Records that a workflow execution ran past its deadline and cancels the event, once per execution.
+     */
+    void timedOut(WorkflowPlan plan, Payload payload, Deadline deadline) {
+        deadlines.timedOut(plan, payload, deadline);
     }
 
     @Override
@@ -178,25 +516,580 @@ public class DefaultInterpreter implements Interpreter {
     @Override
     public void addWorkflow(Workflow workflow) {
         LOGGER.info("Adding workflow '{}'", workflow.getId());
-        workflows.put(workflow.getId(), workflow);
-        DefaultPayload payload = new DefaultPayload(this.engine).with(PayloadKeys.WORKFLOW_ID, workflow.getId());
-        this.engine.getEventBus().publish(EventKeys.WORKFLOW_ADDED, payload);
+        AtomicReference<WorkflowPlan> plan = new AtomicReference<>(lazyCompilation ? null : compile(workflow));
+        synchronized (catalogueLock) {
+            if (plans.containsKey(workflow.getId())) {
+                unregister(workflow.getId());
+            }
+            workflows.put(workflow.getId(), workflow);
+            plans.put(workflow.getId(), plan);
+            register(workflow.getId());
+            DefaultPayload payload = new DefaultPayload(this.engine).with(PayloadKeys.WORKFLOW_ID, workflow.getId());
+            this.engine.getEventBus().publish(EventKeys.WORKFLOW_ADDED, payload);
+        }
     }
 
     @Override
     public void removeWorkflow(String id) {
         LOGGER.info("Removing workflow '{}'", id);
-        DefaultPayload payload = new DefaultPayload(this.engine).with(PayloadKeys.WORKFLOW_ID, id);
-        this.engine.getEventBus().publish(EventKeys.WORKFLOW_REMOVED, payload);
-        workflows.remove(id);
+        synchronized (catalogueLock) {
+            if (!plans.containsKey(id)) {
+                return;
+            }
+            unregister(id);
+            workflows.remove(id);
+            plans.remove(id);
+            DefaultPayload payload = new DefaultPayload(this.engine).with(PayloadKeys.WORKFLOW_ID, id);
+            this.engine.getEventBus().publish(EventKeys.WORKFLOW_REMOVED, payload);
+        }
     }
 
-    public UUID getWorkflowAddedHandler() {
-        return workflowAddedHandler;
+    /**
+     * Compiles the batch in parallel, registers every binding with one {@link EventBus#subscribeAll(List)} call
+     * (or one network rebuild per topic) and publishes a single {@code workflows.added} event carrying the ids
+     * under {@link PayloadKeys#WORKFLOW_IDS}. No per-workflow {@code workflow.added} events are published.
+     */
+    @Override
+    public void addWorkflows(Collection<Workflow> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Adding {} workflow(s)", batch.size());
+        List<Workflow> added = List.copyOf(batch);
+        boolean lazy = lazyCompilation;
+        List<AtomicReference<WorkflowPlan>> compiled = (lazy ? added.stream() : added.parallelStream())
+                .map(workflow -> new AtomicReference<>(lazy ? null : compile(workflow)))
+                .toList();
+        synchronized (catalogueLock) {
+            EventBus eventBus = engine.getEventBus();
+            if (sharedPredicateNetwork) {
+                Map<String, List<Map.Entry<WorkflowPlan, Binding>>> byTopic = new HashMap<>();
+                for (int i = 0; i < added.size(); i++) {
+                    Workflow workflow = added.get(i);
+                    WorkflowPlan plan = resolve(compiled.get(i), workflow);
+                    workflows.put(workflow.getId(), workflow);
+                    plans.put(workflow.getId(), compiled.get(i));
+                    networkedWorkflows.add(workflow.getId());
+                    for (Binding binding : plan.getBindings()) {
+                        byTopic.computeIfAbsent(binding.getEvent(), topic -> new ArrayList<>()).add(Map.entry(plan, binding));
+                    }
+                }
+                byTopic.forEach((topic, entries) -> networks
+                        .computeIfAbsent(topic, key -> new PredicateNetwork(key, this, eventBus))
+                        .addAll(entries));
+            } else {
+                List<Subscription> subscriptions = new ArrayList<>();
+                List<Binding> subscribed = new ArrayList<>();
+                for (int i = 0; i < added.size(); i++) {
+                    Workflow workflow = added.get(i);
+                    AtomicReference<WorkflowPlan> plan = compiled.get(i);
+                    workflows.put(workflow.getId(), workflow);
+                    plans.put(workflow.getId(), plan);
+                    for (Binding binding : bindings(plan, workflow)) {
+                        subscriptions.add(new Subscription(
+                                binding.getEvent(),
+                                binding.getPriority(),
+                                binding.ignoreCancelled(),
+                                innerPayload -> handleEvent(resolve(plan, workflow), binding, innerPayload)));
+                        subscribed.add(binding);
+                    }
+                }
+                List<UUID> ids = eventBus.subscribeAll(subscriptions);
+                for (int i = 0; i < ids.size(); i++) {
+                    subscribed.get(i).setSubscriberId(ids.get(i));
+                }
+            }
+            List<String> ids = added.stream().map(Workflow::getId).toList();
+            eventBus.publish(EventKeys.WORKFLOWS_ADDED, new DefaultPayload(this.engine).with(PayloadKeys.WORKFLOW_IDS, ids));
+        }
     }
 
-    public UUID getWorkflowRemovedHandler() {
-        return workflowRemovedHandler;
+    /**
+     * Unsubscribes every binding of the batch with one {@link EventBus#unsubscribeAll(Map)} call (or one network
+     * rebuild per topic) and publishes a single {@code workflows.removed} event. Unknown ids are ignored.
+     */
+    @Override
+    public void removeWorkflows(Collection<String> batch) {
+        synchronized (catalogueLock) {
+            List<String> removed = batch.stream().distinct().filter(plans::containsKey).toList();
+            if (removed.isEmpty()) {
+                return;
+            }
+            LOGGER.info("Removing {} workflow(s)", removed.size());
+            EventBus eventBus = engine.getEventBus();
+            Map<String, List<UUID>> subscribers = new HashMap<>();
+            Map<String, Set<String>> networked = new HashMap<>();
+            for (String id : removed) {
+                boolean inNetwork = networkedWorkflows.remove(id);
+                for (Binding binding : bindings(plans.get(id), workflows.get(id))) {
+                    if (inNetwork) {
+                        networked.computeIfAbsent(binding.getEvent(), topic -> new HashSet<>()).add(id);
+                    } else {
+                        subscribers.computeIfAbsent(binding.getEvent(), topic -> new ArrayList<>()).add(binding.getSubscriberId());
+                    }
+                }
+            }
+            eventBus.unsubscribeAll(subscribers);
+            networked.forEach((topic, ids) -> {
+                PredicateNetwork network = networks.get(topic);
+                if (network != null) {
+                    network.removeAll(ids);
+                }
+            });
+            for (String id : removed) {
+                workflows.remove(id);
+                plans.remove(id);
+            }
+            eventBus.publish(EventKeys.WORKFLOWS_REMOVED, new DefaultPayload(this.engine).with(PayloadKeys.WORKFLOW_IDS, removed));
+        }
+    }
+
+    /**
+     * Swaps in the new version behind the existing subscriptions. Bindings that still subscribe to the same
+     * event with the same priority and cancellation handling keep their subscription; only added bindings are
+     * subscribed, before the swap, and only dropped bindings are unsubscribed, after it. An event therefore
+     * always reaches the old or the new version.
+     */
+    @Override
+    public void replaceWorkflow(Workflow workflow) {
+        synchronized (catalogueLock) {
+            String id = workflow.getId();
+            AtomicReference<WorkflowPlan> plan = plans.get(id);
+            Workflow previous = workflows.get(id);
+            if (plan == null || previous == null) {
+                addWorkflow(workflow);
+                return;
+            }
+            LOGGER.info("Replacing workflow '{}' version {} with version {}", id, previous.getVersion(), workflow.getVersion());
+            EventBus eventBus = engine.getEventBus();
+            List<Binding> oldBindings = bindings(plan, previous);
+            WorkflowPlan replacement = compile(workflow);
+
+            if (networkedWorkflows.contains(id)) {
+                Map<String, List<Binding>> byTopic = new HashMap<>();
+                oldBindings.forEach(binding -> byTopic.putIfAbsent(binding.getEvent(), new ArrayList<>()));
+                for (Binding binding : replacement.getBindings()) {
+                    byTopic.computeIfAbsent(binding.getEvent(), topic -> new ArrayList<>()).add(binding);
+                }
+                byTopic.forEach((topic, bindings) -> networks
+                        .computeIfAbsent(topic, key -> new PredicateNetwork(key, this, eventBus))
+                        .replace(id, replacement, bindings));
+                workflows.put(id, workflow);
+                plan.set(replacement);
+            } else {
+                List<Binding> unmatched = new ArrayList<>(oldBindings);
+                List<Binding> added = new ArrayList<>();
+                for (Binding binding : replacement.getBindings()) {
+                    Binding kept = unmatched.stream().filter(old -> sameSubscription(old, binding)).findFirst().orElse(null);
+                    if (kept == null) {
+                        added.add(binding);
+                    } else {
+                        unmatched.remove(kept);
+                        binding.setSubscriberId(kept.getSubscriberId());
+                    }
+                }
+                for (Binding binding : added) {
+                    subscribe(eventBus, plan, workflow, binding);
+                }
+                workflows.put(id, workflow);
+                plan.set(replacement);
+                for (Binding binding : unmatched) {
+                    LOGGER.debug("Unsubscribing dropped binding '{}' from event '{}'", binding.getId(), binding.getEvent());
+                    eventBus.unsubscribe(binding.getEvent(), binding.getSubscriberId());
+                }
+                LOGGER.debug("Workflow '{}' kept {} subscription(s), added {} and dropped {}",
+                        id, replacement.getBindings().length - added.size(), added.size(), unmatched.size());
+            }
+            DefaultPayload payload = new DefaultPayload(this.engine).with(PayloadKeys.WORKFLOW_ID, id);
+            eventBus.publish(EventKeys.WORKFLOW_REPLACED, payload);
+        }
+    }
+
+    private static boolean sameSubscription(Binding a, Binding b) {
+        return Objects.equals(a.getEvent(), b.getEvent())
+                && a.getPriority() == b.getPriority()
+                && a.ignoreCancelled() == b.ignoreCancelled();
+    }
+
+    /**
+     * Returns the compiled plan for a workflow, or empty if the workflow is unknown or, in lazy mode, has not
+     * handled an event yet.
+     */
+    public Optional<WorkflowPlan> getPlan(String id) {
+        return Optional.ofNullable(plans.get(id)).map(AtomicReference::get);
+    }
+
+    public boolean isLazyCompilation() {
+        return lazyCompilation;
+    }
+
+    /**
+     * When enabled, workflows added from now on are compiled when their first event arrives instead of in
+     * {@link #addWorkflow(Workflow)}. Useful when many workflows are loaded but few of them ever fire.
+     */
+    public void setLazyCompilation(boolean lazyCompilation) {
+        this.lazyCompilation = lazyCompilation;
+    }
+
+    public boolean isSharedPredicateNetwork() {
+        return sharedPredicateNetwork;
+    }
+
+    /**
+     * When enabled, workflows added from now on are not subscribed one by one. Instead, all workflows bound to a
+     * topic share one subscriber and one {@link PredicateNetwork}: identical predicate definitions, including
+     * the conditions inside {@code AllPredicate}s, are evaluated at most once per event and the result is
+     * reused by every dependent workflow. Workflows keep their binding priority order among themselves.
+     */
+    public void setSharedPredicateNetwork(boolean sharedPredicateNetwork) {
+        this.sharedPredicateNetwork = sharedPredicateNetwork;
+    }
+
+    /**
+     * Number of distinct predicates in the shared network for a topic, or zero when the topic has none.
+     */
+    public int getSharedPredicateCount(String topic) {
+        PredicateNetwork network = networks.get(topic);
+        return network == null ? 0 : network.getNodeCount();
+    }
+
+    public boolean isAdaptivePredicateOrdering() {
+        return adaptivePredicateOrdering;
+    }
+
+    /**
+     * When enabled, each workflow measures how often and how cheaply its predicates pass and periodically
+     * reorders them so cheap, selective checks run first. Predicates with {@code "pinned": true} in their
+     * arguments keep their declared position. Applies to workflows that are not in the shared predicate network.
+     */
+    public void setAdaptivePredicateOrdering(boolean adaptivePredicateOrdering) {
+        this.adaptivePredicateOrdering = adaptivePredicateOrdering;
+    }
+
+    public int getReorderInterval() {
+        return reorderInterval;
+    }
+
+    /**
+     * Sets how many events a workflow handles between reorderings in adaptive mode.
+     */
+    public void setReorderInterval(int reorderInterval) {
+        if (reorderInterval <= 0) {
+            throw new IllegalArgumentException("reorderInterval must be positive");
+        }
+        this.reorderInterval = reorderInterval;
+    }
+
+    /**
+     * Returns the predicates of a compiled workflow in the order they are currently evaluated.
+     */
+    public Optional<List<WorkflowPredicate>> getPredicateOrder(String id) {
+        return getPlan(id).map(plan -> {
+            WorkflowPredicate[] definitions = plan.getPredicateDefinitions();
+            return Arrays.stream(plan.getOrdering().getOrder()).mapToObj(index -> definitions[index]).toList();
+        });
+    }
+
+    public boolean isBytecodeCompilation() {
+        return codeGenerator != null;
+    }
+
+    /**
+     * When enabled, workflows compiled from now on are also turned into a generated hidden class that calls
+     * their predicates and actions directly, so the JIT can inline the whole workflow. The generated code is
+     * used for events without a deadline, outside adaptive ordering and predicate memoization, for workflows
+     * without parallel action groups; everything else keeps the interpreted path.
+     */
+    public synchronized void setBytecodeCompilation(boolean bytecodeCompilation) {
+        if (!bytecodeCompilation) {
+            codeGenerator = null;
+        } else if (codeGenerator == null) {
+            codeGenerator = new WorkflowCodeGenerator();
+        }
+    }
+
+    public boolean isPredicateMemoization() {
+        return predicateMemo.isEnabled();
+    }
+
+    /**
+     * When enabled, the result of each {@link PurePredicate} instance is remembered for the event being
+     * dispatched, so workflows bound to the same event evaluate it once between them. Remembered results are
+     * dropped whenever a workflow's actions run. Sharing requires the event's subscribers to run on one thread,
+     * as they do on the synchronous bus.
+     */
+    public void setPredicateMemoization(boolean predicateMemoization) {
+        predicateMemo.setEnabled(predicateMemoization);
+    }
+
+    public long getPredicateMemoHits() {
+        return predicateMemo.getHits();
+    }
+
+    public long getPredicateMemoMisses() {
+        return predicateMemo.getMisses();
+    }
+
+    public boolean isNonBlockingPipeline() {
+        return nonBlockingPipeline;
+    }
+
+    /**
+     * When enabled, workflows with an {@link AsyncPredicate} or {@link AsyncAction} are handled as a chain of
+     * completion stages: the event bus thread is released at the first pending step, and the rest of the
+     * workflow continues on whichever thread completes it. Later subscribers of the same event therefore do not
+     * wait for such workflows, nor see cancellations they make after that point. Fully synchronous workflows
+     * are unaffected.
+     */
+    public void setNonBlockingPipeline(boolean nonBlockingPipeline) {
+        this.nonBlockingPipeline = nonBlockingPipeline;
+    }
+
+    /**
+     * Number of workflow executions currently waiting on asynchronous steps.
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    public Optional<Duration> getDefaultWorkflowDeadline() {
+        return deadlines.getDefault();
+    }
+
+    /**
+     * Sets how long any workflow may take to handle one event, counted from when its subscriber is called, or
+     * clears it with {@code null}. When the deadline passes the event is cancelled, the workflow's remaining
+     * predicates and actions are skipped, and a timeout is counted. Deadlines are checked between steps: a
+     * synchronous action running on the event thread is not interrupted, while asynchronous actions and the
+     * actions of parallel groups are cancelled. Events can carry their own deadline as an {@link java.time.Instant}
+     * or epoch milliseconds under {@link PayloadKeys#EVENT_DEADLINE}; the earlier of the two applies.
+     */
+    public void setDefaultWorkflowDeadline(Duration deadline) {
+        deadlines.setDefault(deadline);
+    }
+
+    public Optional<Duration> getWorkflowDeadline(String workflowId) {
+        return deadlines.get(workflowId);
+    }
+
+    /**
+     * Sets the deadline of one workflow, overriding the default, or clears it with {@code null}.
+     */
+    public void setWorkflowDeadline(String workflowId, Duration deadline) {
+        deadlines.set(workflowId, deadline);
+    }
+
+    /**
+     * Number of executions of a workflow that ran past their deadline.
+     */
+    public long getTimeoutCount(String workflowId) {
+        return deadlines.getTimeoutCount(workflowId);
+    }
+
+    /**
+     * Number of workflow executions that ran past their deadline, across all workflows.
+     */
+    public long getTimeoutCount() {
+        return deadlines.getTimeoutCount();
+    }
+
+    public Optional<Bulkhead> getDefaultBulkhead() {
+        return bulkheads.getDefault();
+    }
+
+    /**
+     * Gives every workflow without a bulkhead of its own a separate bulkhead with these limits, or clears it
+     * with {@code null}. Bulkheads limit how many executions run their actions at once, so a workflow on a hot
+     * topic cannot occupy every dispatch thread; predicates are evaluated before a permit is taken.
+     */
+    public void setDefaultBulkhead(Bulkhead bulkhead) {
+        bulkheads.setDefault(bulkhead);
+    }
+
+    /**
+     * Sets the bulkhead of a group, or of a single workflow when {@code group} is a workflow id that is not
+     * assigned to any group, or clears it with {@code null}. Executions already holding a permit finish under
+     * the previous limits.
+     */
+    public void setBulkhead(String group, Bulkhead bulkhead) {
+        bulkheads.set(group, bulkhead);
+    }
+
+    /**
+     * Makes a workflow share the bulkhead of {@code group} with the other workflows assigned to it, or gives it
+     * back its own with {@code null}.
+     */
+    public void setBulkheadGroup(String workflowId, String group) {
+        bulkheads.setGroup(workflowId, group);
+    }
+
+    /**
+     * Returns the current state of a group's bulkhead, or of a workflow's own bulkhead, once it has been used.
+     */
+    public Optional<BulkheadStats> getBulkheadStats(String group) {
+        return bulkheads.stats(group);
+    }
+
+    public Optional<CircuitBreakerPolicy> getDefaultCircuitBreaker() {
+        return circuitBreakers.getDefault();
+    }
+
+    /**
+     * Gives every workflow without a policy of its own a circuit breaker, or removes it with {@code null}. An
+     * open circuit skips the workflow's predicates and actions entirely until it half-opens again. Transitions
+     * are published as {@code workflow.circuit.opened}, {@code workflow.circuit.half-opened} and
+     * {@code workflow.circuit.closed}. Breakers start closed whenever they are configured and whenever a
+     * workflow is replaced.
+     */
+    public synchronized void setDefaultCircuitBreaker(CircuitBreakerPolicy policy) {
+        circuitBreakers.setDefault(policy);
+        plans.keySet().stream().filter(id -> !circuitBreakers.hasOwnPolicy(id)).forEach(this::attachBreaker);
+    }
+
+    /**
+     * Sets the circuit breaker policy of one workflow, overriding the default, or reverts to the default with
+     * {@code null}.
+     */
+    public synchronized void setCircuitBreaker(String workflowId, CircuitBreakerPolicy policy) {
+        circuitBreakers.set(workflowId, policy);
+        attachBreaker(workflowId);
+    }
+
+    /**
+     * Returns the circuit state of a compiled workflow, or empty when it has no circuit breaker.
+     */
+    public Optional<CircuitState> getCircuitState(String workflowId) {
+        return getPlan(workflowId).map(WorkflowPlan::getBreaker).map(CircuitBreaker::getState);
+    }
+
+    /**
+     * Number of executions of a workflow skipped because its circuit was open.
+     */
+    public long getCircuitSkippedCount(String workflowId) {
+        return getPlan(workflowId).map(WorkflowPlan::getBreaker).map(CircuitBreaker::getSkipped).orElse(0L);
+    }
+
+    /**
+     * Closes a workflow's circuit immediately, for example after fixing what made it fail.
+     */
+    public void resetCircuitBreaker(String workflowId) {
+        getPlan(workflowId).map(WorkflowPlan::getBreaker).ifPresent(CircuitBreaker::reset);
+    }
+
+    private void attachBreaker(String workflowId) {
+        getPlan(workflowId).ifPresent(plan -> plan.setBreaker(circuitBreakers.create(workflowId)));
+    }
+
+    /**
+     * Sets the executor that runs the actions of parallel groups. By default a cached pool of daemon threads is
+     * created on first use.
+     */
+    public void setActionExecutor(Executor actionExecutor) {
+        this.actionExecutor = Objects.requireNonNull(actionExecutor, "actionExecutor");
+    }
+
+    private Executor actionExecutor() {
+        Executor executor = actionExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = actionExecutor;
+                if (executor == null) {
+                    AtomicInteger counter = new AtomicInteger();
+                    executor = Executors.newCachedThreadPool(runnable -> {
+                        Thread thread = new Thread(runnable, "composer-action-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    actionExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    // Subscribes the bindings of a catalogued workflow. Called under the catalogue lock, before the change is
+    // announced, so the subscriptions never depend on when the bus delivers the announcement.
+    private void register(String id) {
+        AtomicReference<WorkflowPlan> plan = plans.get(id);
+        Workflow workflow = workflows.get(id);
+        EventBus eventBus = engine.getEventBus();
+        LOGGER.info("Registering bindings for workflow '{}'", id);
+        if (sharedPredicateNetwork) {
+            WorkflowPlan compiled = resolve(plan, workflow);
+            networkedWorkflows.add(id);
+            for (Binding binding : compiled.getBindings()) {
+                networks.computeIfAbsent(binding.getEvent(), topic -> new PredicateNetwork(topic, this, eventBus))
+                        .add(compiled, binding);
+            }
+            return;
+        }
+        for (Binding binding : bindings(plan, workflow)) {
+            subscribe(eventBus, plan, workflow, binding);
+        }
+    }
+
+    private void subscribe(EventBus eventBus, AtomicReference<WorkflowPlan> plan, Workflow workflow, Binding binding) {
+        UUID subscriberId = eventBus.subscribe(
+                binding.getEvent(),
+                binding.getPriority(),
+                binding.ignoreCancelled(),
+                innerPayload -> handleEvent(resolve(plan, workflow), binding, innerPayload));
+        LOGGER.debug("Registered binding '{}' for event '{}' with subscriber id {}", binding.getId(), binding.getEvent(), subscriberId);
+        binding.setSubscriberId(subscriberId);
+    }
+
+    // Unsubscribes the bindings of a catalogued workflow, under the catalogue lock and while it is still catalogued.
+    private void unregister(String id) {
+        EventBus eventBus = engine.getEventBus();
+        LOGGER.info("Removing bindings for workflow '{}'", id);
+        if (networkedWorkflows.remove(id)) {
+            for (Binding binding : bindings(plans.get(id), workflows.get(id))) {
+                PredicateNetwork network = networks.get(binding.getEvent());
+                if (network != null) {
+                    network.remove(id);
+                }
+            }
+            return;
+        }
+        for (Binding binding : bindings(plans.get(id), workflows.get(id))) {
+            LOGGER.debug("Unsubscribing binding '{}' from event '{}'", binding.getId(), binding.getEvent());
+            eventBus.unsubscribe(binding.getEvent(), binding.getSubscriberId());
+        }
+    }
+
+    private WorkflowPlan compile(Workflow workflow) {
+        WorkflowPlan plan = WorkflowPlan.compile(this, workflow);
+        plan.setBreaker(circuitBreakers.create(workflow.getId()));
+        WorkflowCodeGenerator generator = codeGenerator;
+        if (generator != null) {
+            generator.generate(plan).ifPresent(plan::setCode);
+        }
+        return plan;
+    }
+
+    private WorkflowPlan resolve(AtomicReference<WorkflowPlan> plan, Workflow workflow) {
+        WorkflowPlan current = plan.get();
+        if (current != null) {
+            return current;
+        }
+        LOGGER.debug("Compiling workflow '{}' on first use", workflow.getId());
+        plan.compareAndSet(null, compile(workflow));
+        return plan.get();
+    }
+
+    // Bindings of a compiled plan, or resolved on the spot so lazy workflows are not compiled just to subscribe.
+    private List<Binding> bindings(AtomicReference<WorkflowPlan> plan, Workflow workflow) {
+        WorkflowPlan current = plan.get();
+        if (current != null) {
+            return List.of(current.getBindings());
+        }
+        return Optional
+                .ofNullable(workflow.getWorkflowBindings())
+                .orElse(List.of())
+                .stream()
+                .map(this::getBinding)
+                .flatMap(Optional::stream)
+                .toList();
     }
 
     @Override
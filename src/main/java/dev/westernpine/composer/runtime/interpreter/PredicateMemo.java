@@ -0,0 +1,87 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.api.Predicate;
+import dev.westernpine.composer.api.PurePredicate;
+import dev.westernpine.composer.runtime.eventbus.DispatchScope;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the results of {@link PurePredicate}s within the bus dispatch currently running on this thread, so
+ * workflows subscribed to the same event share one evaluation of the same predicate instance. Results are kept
+ * only while the event goes from one workflow to the next: they are dropped when the dispatch ends, when a
+ * workflow's actions run, and when any other subscriber ran in between, since each of those may have changed
+ * the payload. Outside a {@link DispatchScope}, for impure predicates and while the memo is disabled, predicates
+ * are always evaluated.
+ */
+final class PredicateMemo {
+
+    private final ThreadLocal<Scope> scopes = ThreadLocal.withInitial(Scope::new);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile boolean enabled;
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    boolean evaluate(Predicate predicate, WorkflowPlan plan, Payload payload) {
+        DispatchScope dispatch = enabled ? DispatchScope.current() : null;
+        if (dispatch == null) {
+            return DefaultInterpreter.evaluate(predicate, plan, payload);
+        }
+        Scope scope = scopes.get();
+        int delivery = dispatch.getDelivery();
+        if (scope.dispatch != dispatch || delivery - scope.delivery > 1) {
+            scope.dispatch = dispatch;
+            scope.results.clear();
+        }
+        // Evaluating any predicate, pure or not, carries the results over to this delivery.
+        scope.delivery = delivery;
+        if (!(predicate instanceof PurePredicate)) {
+            return DefaultInterpreter.evaluate(predicate, plan, payload);
+        }
+        Boolean cached = scope.results.get(predicate);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        boolean result = DefaultInterpreter.evaluate(predicate, plan, payload);
+        scope.results.put(predicate, result);
+        return result;
+    }
+
+    /**
+     * Forgets the results of the current dispatch, for example after actions that may have changed the payload.
+     */
+    void invalidate() {
+        if (!enabled) {
+            return;
+        }
+        Scope scope = scopes.get();
+        scope.dispatch = null;
+        scope.results.clear();
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    private static final class Scope {
+        private DispatchScope dispatch;
+        private int delivery;
+        private final Map<Predicate, Boolean> results = new IdentityHashMap<>();
+    }
+}
@@ -0,0 +1,303 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import dev.westernpine.composer.api.Binding;
+import dev.westernpine.composer.api.DiscriminatorPredicate;
+import dev.westernpine.composer.api.EventBus;
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.api.Predicate;
+import dev.westernpine.composer.model.predicate.AllPredicate;
+import dev.westernpine.composer.model.workflow.WorkflowPredicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Evaluates every workflow bound to one topic from a single event bus subscriber. Predicate definitions that
+ * are equal across workflows become one shared node, and {@code AllPredicate}s are flattened into their inner
+ * conditions so common sub-conditions are shared too. Each node is evaluated at most once per event and its
+ * result is fanned out to every workflow that depends on it.
+ * <p>
+ * Workflows whose conditions include a {@link DiscriminatorPredicate} are also indexed by its attribute and
+ * constant, so an event only reaches the workflows whose constant equals the event's attribute value, plus
+ * the workflows that have no discriminator.
+ * <p>
+ * Results are only reused until some workflow's actions run: actions may change the payload or the registry
+ * that later predicates read, so the memo is cleared after every firing workflow. Most workflows do not fire
+ * for most events, which is where the sharing pays off.
+ */
+final class PredicateNetwork {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PredicateNetwork.class);
+
+    private static final byte UNKNOWN = 0;
+    private static final byte PASSED = 1;
+    private static final byte FAILED = 2;
+
+    private static final Comparator<Member> BY_PRIORITY = Comparator
+            .comparingInt((Member member) -> member.binding().getPriority())
+            .reversed()
+            .thenComparingLong(Member::sequence);
+
+    private final String topic;
+    private final DefaultInterpreter interpreter;
+    private final EventBus eventBus;
+
+    // Guarded by this.
+    private final List<Member> members = new ArrayList<>();
+    private long sequence;
+    private UUID subscriberId;
+    private int subscribedPriority;
+
+    // Bumped whenever the shared subscriber is swapped; deliveries to an older subscriber are ignored.
+    private volatile long generation;
+
+    private volatile Snapshot snapshot = new Snapshot(new Node[0], new Member[0], new Member[0], Map.of());
+
+    PredicateNetwork(String topic, DefaultInterpreter interpreter, EventBus eventBus) {
+        this.topic = topic;
+        this.interpreter = interpreter;
+        this.eventBus = eventBus;
+    }
+
+    synchronized void add(WorkflowPlan plan, Binding binding) {
+        members.add(new Member(plan, binding, null, sequence++));
+        rebuild();
+    }
+
+    synchronized void remove(String workflowId) {
+        if (members.removeIf(member -> member.plan().getWorkflowId().equals(workflowId))) {
+            rebuild();
+        }
+    }
+
+    synchronized void addAll(List<Map.Entry<WorkflowPlan, Binding>> entries) {
+        for (Map.Entry<WorkflowPlan, Binding> entry : entries) {
+            members.add(new Member(entry.getKey(), entry.getValue(), null, sequence++));
+        }
+        rebuild();
+    }
+
+    synchronized void removeAll(Set<String> workflowIds) {
+        if (members.removeIf(member -> workflowIds.contains(member.plan().getWorkflowId()))) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Replaces every member of the workflow with the given bindings in a single rebuild, so events see either
+     * the old or the new version.
+     */
+    synchronized void replace(String workflowId, WorkflowPlan plan, List<Binding> bindings) {
+        members.removeIf(member -> member.plan().getWorkflowId().equals(workflowId));
+        for (Binding binding : bindings) {
+            members.add(new Member(plan, binding, null, sequence++));
+        }
+        rebuild();
+    }
+
+    int getNodeCount() {
+        return snapshot.nodes().length;
+    }
+
+    int getMemberCount() {
+        return snapshot.members().length;
+    }
+
+    private void dispatch(long subscription, Payload payload) {
+        if (subscription != generation) {
+            LOGGER.trace("Ignoring event on topic '{}' delivered to a replaced network subscriber", topic);
+            return;
+        }
+        Snapshot current = snapshot;
+        Node[] nodes = current.nodes();
+        byte[] results = new byte[nodes.length];
+        for (Member member : candidates(current, payload)) {
+            if (payload.isCancelled() && !member.binding().ignoreCancelled()) {
+                continue;
+            }
+            if (!CircuitBreakers.allowed(member.plan())) {
+                continue;
+            }
+            Deadline deadline = interpreter.deadline(member.plan(), payload);
+            if (passes(nodes, member, results, payload, deadline)) {
+                interpreter.executeActions(member.plan(), member.binding(), payload, deadline);
+                Arrays.fill(results, UNKNOWN);
+            } else {
+                LOGGER.debug("Skipping workflow '{}' actions because predicate conditions were not met", member.plan().getWorkflowId());
+            }
+        }
+    }
+
+    // Workflows that can match the event, still in priority order.
+    private static Member[] candidates(Snapshot current, Payload payload) {
+        if (current.index().isEmpty()) {
+            return current.members();
+        }
+        Member[] candidates = current.unindexed();
+        boolean merged = false;
+        for (Map.Entry<String, Map<Object, Member[]>> byAttribute : current.index().entrySet()) {
+            Object value = payload.attributes().get(byAttribute.getKey());
+            if (value == null) {
+                continue;
+            }
+            Member[] matches = byAttribute.getValue().get(DiscriminatorPredicate.normalize(value));
+            if (matches == null) {
+                continue;
+            }
+            if (candidates.length == 0) {
+                candidates = matches;
+            } else {
+                Member[] combined = Arrays.copyOf(candidates, candidates.length + matches.length);
+                System.arraycopy(matches, 0, combined, candidates.length, matches.length);
+                candidates = combined;
+                merged = true;
+            }
+        }
+        if (merged) {
+            Arrays.sort(candidates, BY_PRIORITY);
+        }
+        return candidates;
+    }
+
+    private boolean passes(Node[] nodes, Member member, byte[] results, Payload payload, Deadline deadline) {
+        for (int index : member.nodes()) {
+            byte result = results[index];
+            if (result == UNKNOWN) {
+                if (deadline.isExpired()) {
+                    interpreter.timedOut(member.plan(), payload, deadline);
+                    return false;
+                }
+                result = DefaultInterpreter.evaluate(nodes[index].predicate(), member.plan(), payload) ? PASSED : FAILED;
+                results[index] = result;
+            }
+            if (result == FAILED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Must hold this.
+    private void rebuild() {
+        Map<WorkflowPredicate, Integer> indexes = new HashMap<>();
+        List<Node> nodes = new ArrayList<>();
+        Member[] linked = new Member[members.size()];
+        for (int i = 0; i < linked.length; i++) {
+            Member member = members.get(i);
+            List<Integer> memberNodes = new ArrayList<>();
+            WorkflowPredicate[] definitions = member.plan().getPredicateDefinitions();
+            Predicate[] predicates = member.plan().getPredicates();
+            for (int j = 0; j < definitions.length; j++) {
+                link(definitions[j], predicates[j], indexes, nodes, memberNodes);
+            }
+            linked[i] = new Member(member.plan(), member.binding(), memberNodes.stream().mapToInt(Integer::intValue).toArray(), member.sequence());
+        }
+        Arrays.sort(linked, BY_PRIORITY);
+        Node[] nodeArray = nodes.toArray(Node[]::new);
+
+        List<Member> unindexed = new ArrayList<>();
+        Map<String, Map<Object, List<Member>>> index = new HashMap<>();
+        for (Member member : linked) {
+            DiscriminatorPredicate discriminator = discriminatorOf(nodeArray, member);
+            if (discriminator == null) {
+                unindexed.add(member);
+            } else {
+                index.computeIfAbsent(discriminator.discriminatorAttribute(), attribute -> new HashMap<>())
+                        .computeIfAbsent(discriminator.discriminatorValue(), value -> new ArrayList<>())
+                        .add(member);
+            }
+        }
+        Map<String, Map<Object, Member[]>> frozen = new HashMap<>();
+        index.forEach((attribute, byValue) -> {
+            Map<Object, Member[]> values = new HashMap<>();
+            byValue.forEach((value, matching) -> values.put(value, matching.toArray(Member[]::new)));
+            frozen.put(attribute, values);
+        });
+
+        snapshot = new Snapshot(nodeArray, linked, unindexed.toArray(Member[]::new), frozen);
+        resubscribe(linked);
+        LOGGER.debug("Rebuilt predicate network for topic '{}' with {} workflow(s) sharing {} predicate(s)",
+                topic, linked.length, nodes.size());
+    }
+
+    private static DiscriminatorPredicate discriminatorOf(Node[] nodes, Member member) {
+        for (int index : member.nodes()) {
+            if (nodes[index].predicate() instanceof DiscriminatorPredicate discriminator
+                    && discriminator.discriminatorAttribute() != null
+                    && discriminator.discriminatorValue() != null) {
+                return discriminator;
+            }
+        }
+        return null;
+    }
+
+    private void link(WorkflowPredicate definition, Predicate predicate, Map<WorkflowPredicate, Integer> indexes,
+                      List<Node> nodes, List<Integer> memberNodes) {
+        if (predicate instanceof AllPredicate) {
+            // A conjunction is the same as its conditions in sequence, so share the conditions themselves.
+            List<WorkflowPredicate> inner = definition.innerPredicates();
+            if (inner != null) {
+                for (WorkflowPredicate innerDefinition : inner) {
+                    if (innerDefinition != null) {
+                        interpreter.getPredicate(innerDefinition)
+                                .ifPresent(innerPredicate -> link(innerDefinition, innerPredicate, indexes, nodes, memberNodes));
+                    }
+                }
+            }
+            return;
+        }
+        Integer index = indexes.get(definition);
+        if (index == null) {
+            index = nodes.size();
+            nodes.add(new Node(definition, predicate));
+            indexes.put(definition, index);
+        }
+        memberNodes.add(index);
+    }
+
+    // Must hold this. The shared subscriber runs at the highest binding priority of its workflows.
+    private void resubscribe(Member[] linked) {
+        if (linked.length == 0) {
+            if (subscriberId != null) {
+                generation++;
+                eventBus.unsubscribe(topic, subscriberId);
+                subscriberId = null;
+            }
+            return;
+        }
+        int priority = linked[0].binding().getPriority();
+        if (subscriberId == null || priority != subscribedPriority) {
+            // Subscribe the replacement before dropping the old subscriber, so no event finds neither. While
+            // both are registered only the current generation dispatches, so no event is handled twice.
+            UUID previous = subscriberId;
+            long next = generation + 1;
+            subscriberId = eventBus.subscribe(topic, priority, true, payload -> dispatch(next, payload));
+            generation = next;
+            subscribedPriority = priority;
+            if (previous != null) {
+                eventBus.unsubscribe(topic, previous);
+            }
+            LOGGER.debug("Subscribed predicate network for topic '{}' at priority {} with id {}", topic, priority, subscriberId);
+        }
+        for (Member member : linked) {
+            member.binding().setSubscriberId(subscriberId);
+        }
+    }
+
+    private record Node(WorkflowPredicate definition, Predicate predicate) {
+    }
+
+    private record Member(WorkflowPlan plan, Binding binding, int[] nodes, long sequence) {
+    }
+
+    private record Snapshot(Node[] nodes, Member[] members, Member[] unindexed, Map<String, Map<Object, Member[]>> index) {
+    }
+}
@@ -0,0 +1,135 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import dev.westernpine.composer.model.workflow.WorkflowPredicate;
+import dev.westernpine.composer.utilities.ArgsUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Observed pass rate and cost of each predicate in one workflow, and the evaluation order derived from them.
+ * Because a workflow only runs when every predicate passes, the expected cost of the chain is lowest when
+ * predicates are sorted by {@code meanNanos / (1 - passRate)}: cheap checks that usually fail go first.
+ * <p>
+ * Predicates whose definition has {@code "pinned": true} keep their declared position, and the predicates
+ * between two pinned ones are only reordered among themselves, so order-dependent checks stay correct.
+ * Predicates without enough samples sort first so they get measured.
+ */
+public final class PredicateOrdering {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PredicateOrdering.class);
+
+    static final String PINNED_ARGUMENT = "pinned";
+    private static final long MIN_SAMPLES = 16;
+
+    private final boolean[] pinned;
+    private final AtomicLongArray evaluations;
+    private final AtomicLongArray passes;
+    private final AtomicLongArray nanos;
+    private final AtomicLong events = new AtomicLong();
+    private volatile int[] order;
+
+    PredicateOrdering(WorkflowPredicate[] definitions) {
+        int size = definitions.length;
+        this.pinned = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            pinned[i] = ArgsUtility.readBoolean(definitions[i].args(), PINNED_ARGUMENT).orElse(false);
+        }
+        this.evaluations = new AtomicLongArray(size);
+        this.passes = new AtomicLongArray(size);
+        this.nanos = new AtomicLongArray(size);
+        int[] declared = new int[size];
+        Arrays.setAll(declared, i -> i);
+        this.order = declared;
+    }
+
+    /**
+     * Current evaluation order as indexes into the plan's predicates. The array is shared and must not be modified.
+     */
+    public int[] getOrder() {
+        return order;
+    }
+
+    public boolean isPinned(int index) {
+        return pinned[index];
+    }
+
+    public long getEvaluations(int index) {
+        return evaluations.get(index);
+    }
+
+    public double getPassRate(int index) {
+        long count = evaluations.get(index);
+        return count == 0 ? 0.0 : (double) passes.get(index) / count;
+    }
+
+    public double getMeanNanos(int index) {
+        long count = evaluations.get(index);
+        return count == 0 ? 0.0 : (double) nanos.get(index) / count;
+    }
+
+    void record(int index, boolean passed, long elapsedNanos) {
+        evaluations.incrementAndGet(index);
+        if (passed) {
+            passes.incrementAndGet(index);
+        }
+        nanos.addAndGet(index, elapsedNanos);
+    }
+
+    /**
+     * Counts one handled event and returns {@code true} every {@code interval} events.
+     */
+    boolean countEvent(int interval) {
+        return events.incrementAndGet() % interval == 0;
+    }
+
+    synchronized void reorder(String workflowId) {
+        int[] current = order;
+        int[] next = current.clone();
+        // Ranks are taken once so concurrent updates cannot make the comparison inconsistent mid-sort.
+        double[] ranks = new double[next.length];
+        Arrays.setAll(ranks, this::rank);
+        Comparator<Integer> byRank = Comparator.comparingDouble(index -> ranks[index]);
+        int start = 0;
+        while (start < next.length) {
+            if (pinned[next[start]]) {
+                start++;
+                continue;
+            }
+            int end = start;
+            List<Integer> segment = new ArrayList<>();
+            while (end < next.length && !pinned[next[end]]) {
+                segment.add(next[end++]);
+            }
+            segment.sort(byRank);
+            for (int i = 0; i < segment.size(); i++) {
+                next[start + i] = segment.get(i);
+            }
+            start = end;
+        }
+        if (!Arrays.equals(current, next)) {
+            order = next;
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Reordered predicates of workflow '{}' from {} to {}", workflowId, Arrays.toString(current), Arrays.toString(next));
+            }
+        }
+    }
+
+    private double rank(int index) {
+        long count = evaluations.get(index);
+        if (count < MIN_SAMPLES) {
+            return -1.0;
+        }
+        double passRate = (double) passes.get(index) / count;
+        if (passRate >= 1.0) {
+            return Double.MAX_VALUE;
+        }
+        return ((double) nanos.get(index) / count) / (1.0 - passRate);
+    }
+}
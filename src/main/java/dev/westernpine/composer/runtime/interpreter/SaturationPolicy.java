@@ -0,0 +1,16 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+/**
+ * Decides what a workflow execution does when its bulkhead has no free permit.
+ */
+public enum SaturationPolicy {
+
+    /** Waits for a permit, up to the execution's deadline if it has one. */
+    QUEUE,
+
+    /** Skips the execution and counts it as shed. */
+    SHED,
+
+    /** Runs the execution on the calling thread anyway, without a permit, and counts it as inline. */
+    INLINE
+}
@@ -0,0 +1,21 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import dev.westernpine.composer.api.Binding;
+import dev.westernpine.composer.api.Payload;
+
+/**
+ * A workflow plan compiled to bytecode by {@link WorkflowCodeGenerator}. Each workflow gets its own hidden
+ * class whose predicates and actions are constants, so every call site sees exactly one receiver type.
+ */
+interface WorkflowCode {
+
+    /**
+     * Evaluates the predicates in workflow order, with the same failure handling as the interpreted path.
+     */
+    boolean test(Payload payload);
+
+    /**
+     * Executes the actions in workflow order, with the same failure handling as the interpreted path.
+     */
+    void run(Binding binding, Payload payload);
+}
@@ -0,0 +1,140 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import dev.westernpine.composer.api.Action;
+import dev.westernpine.composer.api.Binding;
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.api.Predicate;
+import javassist.CannotCompileException;
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.Modifier;
+import javassist.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compiles a {@link WorkflowPlan} into a hidden class implementing {@link WorkflowCode}. The plan, its
+ * predicates and its actions become {@code static final} fields initialized from the class data, so the JIT
+ * treats them as constants and can inline each predicate and action into the generated method instead of
+ * going through one shared, megamorphic call site.
+ * <p>
+ * Only plans whose actions all run one after another are compiled; plans with parallel groups keep the
+ * interpreted path.
+ */
+final class WorkflowCodeGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkflowCodeGenerator.class);
+
+    private static final String CLASS_NAME = WorkflowCodeGenerator.class.getPackageName() + ".GeneratedWorkflow";
+    private static final String PAYLOAD = Payload.class.getName();
+    private static final String BINDING = Binding.class.getName();
+    private static final String PREDICATE = Predicate.class.getName();
+    private static final String ACTION = Action.class.getName();
+    private static final String PLAN = WorkflowPlan.class.getName();
+    private static final String SELF = WorkflowCodeGenerator.class.getName();
+
+    private final ClassPool pool;
+
+    WorkflowCodeGenerator() {
+        this.pool = new ClassPool(true);
+        this.pool.appendClassPath(new ClassClassPath(WorkflowCodeGenerator.class));
+    }
+
+    /**
+     * Returns the compiled form of the plan, or empty when the plan cannot be compiled.
+     */
+    Optional<WorkflowCode> generate(WorkflowPlan plan) {
+        if (plan.getStageStarts().length != plan.getActions().length + 1) {
+            LOGGER.debug("Not compiling workflow '{}' because it has parallel action groups", plan.getWorkflowId());
+            return Optional.empty();
+        }
+        try {
+            byte[] bytecode = bytecode(plan);
+            List<Object> constants = new ArrayList<>();
+            constants.add(plan);
+            constants.addAll(List.of(plan.getPredicates()));
+            constants.addAll(List.of(plan.getActions()));
+            Class<?> type = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(bytecode, List.copyOf(constants), true)
+                    .lookupClass();
+            LOGGER.debug("Compiled workflow '{}' to {}", plan.getWorkflowId(), type.getName());
+            return Optional.of((WorkflowCode) type.getConstructor().newInstance());
+        } catch (Exception | LinkageError e) {
+            LOGGER.warn("Failed to compile workflow '{}' to bytecode; it stays interpreted", plan.getWorkflowId(), e);
+            return Optional.empty();
+        }
+    }
+
+    // The pool is not thread-safe, and workflows are compiled in parallel during bulk loads.
+    private synchronized byte[] bytecode(WorkflowPlan plan) throws CannotCompileException, NotFoundException, IOException {
+        int predicates = plan.getPredicates().length;
+        int actions = plan.getActions().length;
+        CtClass type = pool.makeClass(CLASS_NAME);
+        try {
+            type.setModifiers(Modifier.FINAL);
+            type.addInterface(pool.get(WorkflowCode.class.getName()));
+
+            StringBuilder initializer = new StringBuilder("{ java.lang.invoke.MethodHandles.Lookup lookup = java.lang.invoke.MethodHandles.lookup();");
+            addConstant(type, initializer, PLAN, "plan", 0);
+            for (int i = 0; i < predicates; i++) {
+                addConstant(type, initializer, PREDICATE, "p" + i, 1 + i);
+            }
+            for (int i = 0; i < actions; i++) {
+                addConstant(type, initializer, ACTION, "a" + i, 1 + predicates + i);
+            }
+            type.makeClassInitializer().setBody(initializer.append('}').toString());
+            type.addConstructor(CtNewConstructor.defaultConstructor(type));
+
+            StringBuilder test = new StringBuilder("public boolean test(" + PAYLOAD + " payload) {");
+            for (int i = 0; i < predicates; i++) {
+                test.append("try { if (!p").append(i).append(".evaluate(payload)) { return false; } }")
+                        .append(" catch (Exception e) { return ").append(SELF).append(".predicateFailed(plan, ").append(i).append(", e); }");
+            }
+            type.addMethod(CtNewMethod.make(test.append("return true; }").toString(), type));
+
+            StringBuilder run = new StringBuilder("public void run(" + BINDING + " binding, " + PAYLOAD + " payload) {");
+            for (int i = 0; i < actions; i++) {
+                run.append(SELF).append(".executing(plan, ").append(i).append(");")
+                        .append("try { a").append(i).append(".execute(payload); }")
+                        .append(" catch (Exception e) { ").append(SELF).append(".actionFailed(plan, binding, ").append(i).append(", payload, e); }");
+            }
+            type.addMethod(CtNewMethod.make(run.append('}').toString(), type));
+            return type.toBytecode();
+        } finally {
+            type.detach();
+        }
+    }
+
+    private void addConstant(CtClass type, StringBuilder initializer, String fieldType, String name, int index)
+            throws CannotCompileException, NotFoundException {
+        CtField field = new CtField(pool.get(fieldType), name, type);
+        field.setModifiers(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL);
+        type.addField(field);
+        initializer.append(name).append(" = (").append(fieldType).append(") java.lang.invoke.MethodHandles.classDataAt(lookup, \"_\", ")
+                .append(fieldType).append(".class, ").append(index).append(");");
+    }
+
+    // Called from generated code.
+
+    static boolean predicateFailed(WorkflowPlan plan, int index, Exception e) {
+        return DefaultInterpreter.predicateFailed(plan.getPredicates()[index], plan, e);
+    }
+
+    static void executing(WorkflowPlan plan, int index) {
+        DefaultInterpreter.executing(plan, plan.getActions()[index]);
+    }
+
+    static void actionFailed(WorkflowPlan plan, Binding binding, int index, Payload payload, Exception e) {
+        DefaultInterpreter.actionFailed(plan, binding, plan.getActions()[index], payload, e);
+    }
+}
@@ -0,0 +1,205 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import dev.westernpine.composer.api.Action;
+import dev.westernpine.composer.api.AsyncAction;
+import dev.westernpine.composer.api.AsyncPredicate;
+import dev.westernpine.composer.api.Binding;
+import dev.westernpine.composer.api.Interpreter;
+import dev.westernpine.composer.api.Predicate;
+import dev.westernpine.composer.model.workflow.Workflow;
+import dev.westernpine.composer.model.workflow.WorkflowAction;
+import dev.westernpine.composer.model.workflow.WorkflowBinding;
+import dev.westernpine.composer.model.workflow.WorkflowPredicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A workflow with its predicates, actions and bindings resolved once through the engine's factories, so
+ * event handling only walks arrays. Definitions the factories cannot resolve are left out, exactly as when
+ * they were resolved per event. Plans are immutable apart from their {@link PredicateOrdering} statistics,
+ * the generated code attached right after compilation and their circuit breaker; a changed workflow gets a
+ * new plan.
+ */
+public final class WorkflowPlan {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkflowPlan.class);
+
+    private final Workflow workflow;
+    private final WorkflowPredicate[] predicateDefinitions;
+    private final Predicate[] predicates;
+    private final WorkflowAction[] actionDefinitions;
+    private final Action[] actions;
+    private final Binding[] bindings;
+    private final PredicateOrdering ordering;
+    private final int[] stageStarts;
+    private final boolean async;
+    private volatile WorkflowCode code;
+    private volatile CircuitBreaker breaker;
+
+    private WorkflowPlan(Workflow workflow,
+                         WorkflowPredicate[] predicateDefinitions,
+                         Predicate[] predicates,
+                         WorkflowAction[] actionDefinitions,
+                         Action[] actions,
+                         Binding[] bindings) {
+        this.workflow = workflow;
+        this.predicateDefinitions = predicateDefinitions;
+        this.predicates = predicates;
+        this.actionDefinitions = actionDefinitions;
+        this.actions = actions;
+        this.bindings = bindings;
+        this.ordering = new PredicateOrdering(predicateDefinitions);
+        this.stageStarts = stages(actionDefinitions);
+        this.async = Arrays.stream(predicates).anyMatch(AsyncPredicate.class::isInstance)
+                || Arrays.stream(actions).anyMatch(AsyncAction.class::isInstance);
+    }
+
+    public static WorkflowPlan compile(Interpreter interpreter, Workflow workflow) {
+        Objects.requireNonNull(interpreter, "interpreter");
+        Objects.requireNonNull(workflow, "workflow");
+
+        List<WorkflowPredicate> predicateDefinitions = new ArrayList<>();
+        List<Predicate> predicates = new ArrayList<>();
+        for (WorkflowPredicate definition : nonNull(workflow.getWorkflowPredicates())) {
+            interpreter.getPredicate(definition).ifPresent(predicate -> {
+                predicateDefinitions.add(definition);
+                predicates.add(predicate);
+            });
+        }
+
+        List<WorkflowAction> actionDefinitions = new ArrayList<>();
+        List<Action> actions = new ArrayList<>();
+        for (WorkflowAction definition : nonNull(workflow.getWorkflowActions())) {
+            interpreter.getAction(definition).ifPresent(action -> {
+                actionDefinitions.add(definition);
+                actions.add(action);
+            });
+        }
+
+        List<Binding> bindings = new ArrayList<>();
+        for (WorkflowBinding definition : nonNull(workflow.getWorkflowBindings())) {
+            interpreter.getBinding(definition).ifPresent(bindings::add);
+        }
+
+        LOGGER.debug("Compiled workflow '{}' with {} predicate(s), {} action(s) and {} binding(s)",
+                workflow.getId(), predicates.size(), actions.size(), bindings.size());
+        return new WorkflowPlan(
+                workflow,
+                predicateDefinitions.toArray(WorkflowPredicate[]::new),
+                predicates.toArray(Predicate[]::new),
+                actionDefinitions.toArray(WorkflowAction[]::new),
+                actions.toArray(Action[]::new),
+                bindings.toArray(Binding[]::new));
+    }
+
+    public Workflow getWorkflow() {
+        return workflow;
+    }
+
+    public String getWorkflowId() {
+        return workflow.getId();
+    }
+
+    /**
+     * The definitions behind {@link #getPredicates()}, index for index. The array is shared and must not be modified.
+     */
+    public WorkflowPredicate[] getPredicateDefinitions() {
+        return predicateDefinitions;
+    }
+
+    /**
+     * The resolved predicates in workflow order. The array is shared and must not be modified.
+     */
+    public Predicate[] getPredicates() {
+        return predicates;
+    }
+
+    /**
+     * The definitions behind {@link #getActions()}, index for index. The array is shared and must not be modified.
+     */
+    public WorkflowAction[] getActionDefinitions() {
+        return actionDefinitions;
+    }
+
+    /**
+     * The resolved actions in workflow order. The array is shared and must not be modified.
+     */
+    public Action[] getActions() {
+        return actions;
+    }
+
+    /**
+     * The resolved bindings. The array is shared and must not be modified.
+     */
+    public Binding[] getBindings() {
+        return bindings;
+    }
+
+    /**
+     * Observed predicate statistics and the adaptive evaluation order. Only updated when the interpreter runs
+     * in adaptive predicate ordering mode.
+     */
+    public PredicateOrdering getOrdering() {
+        return ordering;
+    }
+
+    /**
+     * Start index of each action stage in {@link #getActions()}, followed by the action count. A stage is a run
+     * of consecutive actions sharing a parallel group, or a single ungrouped action. The array is shared and
+     * must not be modified.
+     */
+    public int[] getStageStarts() {
+        return stageStarts;
+    }
+
+    /**
+     * Whether any predicate or action of the workflow is asynchronous.
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Whether the plan was also compiled to bytecode.
+     */
+    public boolean isGenerated() {
+        return code != null;
+    }
+
+    WorkflowCode getCode() {
+        return code;
+    }
+
+    void setCode(WorkflowCode code) {
+        this.code = code;
+    }
+
+    CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    void setBreaker(CircuitBreaker breaker) {
+        this.breaker = breaker;
+    }
+
+    private static int[] stages(WorkflowAction[] definitions) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < definitions.length; i++) {
+            String group = definitions[i].parallelGroup();
+            if (i == 0 || group == null || !group.equals(definitions[i - 1].parallelGroup())) {
+                starts.add(i);
+            }
+        }
+        starts.add(definitions.length);
+        return starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static <T> List<T> nonNull(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+}
@@ -0,0 +1,365 @@
+package dev.westernpine.composer.runtime.journal;
+
+import dev.westernpine.composer.api.Payload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only event log stored in fixed-size memory-mapped segment files. Each record holds the publish time,
+ * topic, cancelled flag and binary-encoded payload attributes. Appends only copy into the mapped segment; a
+ * background flusher forces dirty segments to disk at a fixed interval, so many appends share one
+ * {@code force()} (group commit).
+ * <p>
+ * Offsets are logical: a segment's base offset plus the position of the record inside it. Segment files are
+ * named after their base offset, so the journal can be reopened and appended to after a restart.
+ * <p>
+ * Record layout: {@code int length | int crc32c | long epochMillis | byte flags | string topic | attributes},
+ * where {@code length} and the CRC-32C checksum cover the body after the header. The body and checksum are
+ * written before the length, so a record only becomes visible once it is complete. A zero length marks the
+ * end of written data in a segment; reading and recovery stop at the first record whose checksum does not
+ * match, and recovery discards everything from there on.
+ */
+public class EventJournal implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final byte FLAG_CANCELLED = 1;
+    private static final int INITIAL_SCRATCH_BYTES = 4096;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ScheduledExecutorService flusher;
+    private final ThreadLocal<ByteBuffer> scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_SCRATCH_BYTES));
+
+    private final LongAdder appendedRecords = new LongAdder();
+    private final LongAdder appendedBytes = new LongAdder();
+    private final LongAdder appendNanos = new LongAdder();
+    private final LongAdder forces = new LongAdder();
+
+    // Guarded by this.
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentBase;
+    private boolean dirty;
+    private boolean closed;
+
+    public EventJournal(Path directory) {
+        this(directory, 64 * 1024 * 1024, Duration.ofMillis(10));
+    }
+
+    public EventJournal(Path directory, int segmentSize, Duration flushInterval) {
+        this.directory = Objects.requireNonNull(directory, "directory");
+        if (segmentSize <= HEADER_BYTES) {
+            throw new IllegalArgumentException("segmentSize is too small");
+        }
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            long[] bases = segmentBases();
+            if (bases.length == 0) {
+                openSegment(0L);
+            } else {
+                openSegment(bases[bases.length - 1]);
+                int end = endOfData(segment);
+                truncate(segment, end);
+                segment.position(end);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open event journal in " + directory, e);
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "composer-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = Objects.requireNonNull(flushInterval, "flushInterval").toNanos();
+        this.flusher.scheduleWithFixedDelay(this::flush, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        LOGGER.info("Opened event journal in {} at offset {} with {} byte segments", directory, getEndOffset(), segmentSize);
+    }
+
+    /**
+     * Appends one event and returns its offset. The record is durable after the next flush.
+     */
+    public long append(String topic, Payload payload) {
+        long start = System.nanoTime();
+        ByteBuffer record = encode(Instant.now().toEpochMilli(), topic, payload);
+        int length = record.remaining();
+        int checksum = checksum(record);
+        if (HEADER_BYTES + length + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("Event on topic '" + topic + "' is larger than a journal segment");
+        }
+        long offset;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Event journal is closed");
+            }
+            // Keep room for a trailing zero length so readers always find the end of the segment.
+            if (segment.remaining() < HEADER_BYTES + length + Integer.BYTES) {
+                roll();
+            }
+            int position = segment.position();
+            offset = segmentBase + position;
+            segment.position(position + HEADER_BYTES);
+            segment.put(record);
+            segment.putInt(position + Integer.BYTES, checksum);
+            // The length goes in last, so a reader never sees a length whose body is not fully written.
+            segment.putInt(position, length);
+            dirty = true;
+        }
+        appendedRecords.increment();
+        appendedBytes.add(HEADER_BYTES + length);
+        appendNanos.add(System.nanoTime() - start);
+        return offset;
+    }
+
+    /**
+     * Forces any appended records to disk. Called periodically by the flusher thread.
+     */
+    public void flush() {
+        MappedByteBuffer toForce;
+        synchronized (this) {
+            if (!dirty || closed) {
+                return;
+            }
+            toForce = segment;
+            dirty = false;
+        }
+        // Forced outside the lock so appends keep flowing while the page cache is written back.
+        toForce.force();
+        forces.increment();
+    }
+
+    /**
+     * Reads every record at or after the offset, in order.
+     */
+    public void read(long fromOffset, Consumer<JournalRecord> reader) {
+        read(fromOffset, record -> record.offset() >= fromOffset, reader);
+    }
+
+    /**
+     * Reads every record published at or after the instant, in order.
+     */
+    public void read(Instant from, Consumer<JournalRecord> reader) {
+        long fromMillis = from.toEpochMilli();
+        read(0L, record -> record.epochMillis() >= fromMillis, reader);
+    }
+
+    public synchronized long getEndOffset() {
+        return segmentBase + segment.position();
+    }
+
+    public long getAppendedRecords() {
+        return appendedRecords.sum();
+    }
+
+    public long getAppendedBytes() {
+        return appendedBytes.sum();
+    }
+
+    public long getForceCount() {
+        return forces.sum();
+    }
+
+    /**
+     * Mean time spent in {@link #append(String, Payload)}, including encoding, in nanoseconds.
+     */
+    public double getAverageAppendNanos() {
+        long records = appendedRecords.sum();
+        return records == 0 ? 0.0 : (double) appendNanos.sum() / records;
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            segment.force();
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close journal segment", e);
+            }
+        }
+        LOGGER.info("Closed event journal in {} after {} records", directory, appendedRecords.sum());
+    }
+
+    private void read(long fromOffset, Predicate<JournalRecord> filter, Consumer<JournalRecord> reader) {
+        flush();
+        long[] bases;
+        try {
+            bases = segmentBases();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list journal segments in " + directory, e);
+        }
+        for (long base : bases) {
+            if (base + segmentSize <= fromOffset) {
+                continue;
+            }
+            try (FileChannel readChannel = FileChannel.open(segmentPath(base), StandardOpenOption.READ)) {
+                ByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                while (buffer.remaining() >= HEADER_BYTES) {
+                    long offset = base + buffer.position();
+                    int length = buffer.getInt();
+                    int checksum = buffer.getInt();
+                    if (length <= 0 || length > buffer.remaining()) {
+                        break;
+                    }
+                    ByteBuffer body = buffer.slice(buffer.position(), length);
+                    if (checksum(body) != checksum) {
+                        LOGGER.warn("Stopping journal read at corrupt record at offset {}", offset);
+                        break;
+                    }
+                    buffer.position(buffer.position() + length);
+                    JournalRecord record = decode(offset, body);
+                    if (filter.test(record)) {
+                        reader.accept(record);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read journal segment " + base, e);
+            }
+        }
+    }
+
+    private ByteBuffer encode(long epochMillis, String topic, Payload payload) {
+        ByteBuffer buffer = scratch.get();
+        while (true) {
+            buffer.clear();
+            try {
+                buffer.putLong(epochMillis);
+                buffer.put(payload.isCancelled() ? FLAG_CANCELLED : 0);
+                PayloadCodec.putString(buffer, topic);
+                PayloadCodec.encodeAttributes(payload.attributes(), buffer);
+                buffer.flip();
+                return buffer;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                scratch.set(buffer);
+            }
+        }
+    }
+
+    private JournalRecord decode(long offset, ByteBuffer body) {
+        long epochMillis = body.getLong();
+        boolean cancelled = (body.get() & FLAG_CANCELLED) != 0;
+        String topic = PayloadCodec.getString(body);
+        Map<String, Object> attributes = PayloadCodec.decodeAttributes(body);
+        return new JournalRecord(offset, epochMillis, topic, cancelled, attributes);
+    }
+
+    // Must hold this.
+    private void roll() {
+        segment.force();
+        long nextBase = segmentBase + segmentSize;
+        try {
+            channel.close();
+            openSegment(nextBase);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll event journal segment", e);
+        }
+        LOGGER.info("Rolled event journal to segment at offset {}", nextBase);
+    }
+
+    private void openSegment(long base) throws IOException {
+        channel = FileChannel.open(segmentPath(base), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segmentBase = base;
+        dirty = false;
+    }
+
+    private long[] segmentBases() throws IOException {
+        List<Long> bases = new ArrayList<>();
+        File[] files = directory.toFile().listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    bases.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    LOGGER.warn("Ignoring unexpected file {} in journal directory", name);
+                }
+            }
+        }
+        long[] sorted = bases.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    private static int endOfData(ByteBuffer buffer) {
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > buffer.limit()) {
+                break;
+            }
+            if (checksum(buffer.slice(position + HEADER_BYTES, length)) != buffer.getInt(position + Integer.BYTES)) {
+                LOGGER.warn("Found corrupt journal record at position {}; discarding it and everything after it", position);
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    // Zeroes a torn or corrupt tail so it cannot be mistaken for records once new ones are appended before it.
+    private static void truncate(MappedByteBuffer buffer, int end) {
+        if (end + Integer.BYTES > buffer.limit() || buffer.getInt(end) == 0) {
+            return;
+        }
+        int position = end;
+        while (position + Long.BYTES <= buffer.limit()) {
+            buffer.putLong(position, 0L);
+            position += Long.BYTES;
+        }
+        while (position < buffer.limit()) {
+            buffer.put(position++, (byte) 0);
+        }
+        buffer.force();
+    }
+
+    private static int checksum(ByteBuffer body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * One decoded journal entry.
+     */
+    public record JournalRecord(long offset, long epochMillis, String topic, boolean cancelled, Map<String, Object> attributes) {
+    }
+}
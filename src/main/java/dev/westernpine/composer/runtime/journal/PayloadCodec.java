@@ -0,0 +1,227 @@
+package dev.westernpine.composer.runtime.journal;
+
+import dev.westernpine.composer.model.config.WorkflowSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact tagged binary encoding for payload attribute maps. Supports strings, boxed primitives,
+ * {@link Duration}, {@link Instant}, {@link UUID}, {@link WorkflowSource}, and nested lists and maps with
+ * string keys. Attributes of any other type are skipped, since they cannot be replayed; the first skip of each
+ * type is logged as a warning.
+ * <p>
+ * The username and password of a {@link WorkflowSource} are written as {@code null}, so credentials are
+ * never persisted; a decoded source has neither.
+ */
+public final class PayloadCodec {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PayloadCodec.class);
+
+    // Names of the unsupported attribute types already warned about; each is only logged at debug afterwards.
+    private static final Set<String> WARNED_TYPES = ConcurrentHashMap.newKeySet();
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte SHORT = 7;
+    private static final byte BYTE = 8;
+    private static final byte CHARACTER = 9;
+    private static final byte DURATION = 10;
+    private static final byte INSTANT = 11;
+    private static final byte UUID_VALUE = 12;
+    private static final byte LIST = 13;
+    private static final byte MAP = 14;
+    private static final byte WORKFLOW_SOURCE = 15;
+
+    private PayloadCodec() {
+    }
+
+    /**
+     * Writes the attributes into the buffer.
+     *
+     * @throws BufferOverflowException when the buffer is too small; callers retry with a larger buffer
+     */
+    public static void encodeAttributes(Map<String, Object> attributes, ByteBuffer buffer) {
+        int countPosition = buffer.position();
+        buffer.putInt(0);
+        int count = 0;
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            if (!isEncodable(entry.getValue())) {
+                String type = entry.getValue().getClass().getName();
+                if (WARNED_TYPES.add(type)) {
+                    LOGGER.warn("Skipping payload attributes of unsupported type {} while encoding, first seen as '{}'", type, entry.getKey());
+                } else {
+                    LOGGER.debug("Skipping payload attribute '{}' of unsupported type {} while encoding", entry.getKey(), type);
+                }
+                continue;
+            }
+            putString(buffer, entry.getKey());
+            encodeValue(entry.getValue(), buffer);
+            count++;
+        }
+        buffer.putInt(countPosition, count);
+    }
+
+    public static Map<String, Object> decodeAttributes(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        Map<String, Object> attributes = new LinkedHashMap<>(Math.max(16, count * 2));
+        for (int i = 0; i < count; i++) {
+            String key = getString(buffer);
+            Object value = decodeValue(buffer);
+            if (value != null) {
+                attributes.put(key, value);
+            }
+        }
+        return attributes;
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isEncodable(Object value) {
+        if (value == null
+                || value instanceof String
+                || value instanceof Integer
+                || value instanceof Long
+                || value instanceof Double
+                || value instanceof Float
+                || value instanceof Boolean
+                || value instanceof Short
+                || value instanceof Byte
+                || value instanceof Character
+                || value instanceof Duration
+                || value instanceof Instant
+                || value instanceof UUID
+                || value instanceof WorkflowSource) {
+            return true;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().allMatch(PayloadCodec::isEncodable);
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.entrySet().stream().allMatch(entry -> entry.getKey() instanceof String && isEncodable(entry.getValue()));
+        }
+        return false;
+    }
+
+    private static void encodeValue(Object value, ByteBuffer buffer) {
+        if (value == null) {
+            buffer.put(NULL);
+        } else if (value instanceof String string) {
+            buffer.put(STRING);
+            putString(buffer, string);
+        } else if (value instanceof Integer integer) {
+            buffer.put(INTEGER).putInt(integer);
+        } else if (value instanceof Long longValue) {
+            buffer.put(LONG).putLong(longValue);
+        } else if (value instanceof Double doubleValue) {
+            buffer.put(DOUBLE).putDouble(doubleValue);
+        } else if (value instanceof Float floatValue) {
+            buffer.put(FLOAT).putFloat(floatValue);
+        } else if (value instanceof Boolean booleanValue) {
+            buffer.put(BOOLEAN).put((byte) (booleanValue ? 1 : 0));
+        } else if (value instanceof Short shortValue) {
+            buffer.put(SHORT).putShort(shortValue);
+        } else if (value instanceof Byte byteValue) {
+            buffer.put(BYTE).put(byteValue);
+        } else if (value instanceof Character character) {
+            buffer.put(CHARACTER).putChar(character);
+        } else if (value instanceof Duration duration) {
+            buffer.put(DURATION).putLong(duration.getSeconds()).putInt(duration.getNano());
+        } else if (value instanceof Instant instant) {
+            buffer.put(INSTANT).putLong(instant.getEpochSecond()).putInt(instant.getNano());
+        } else if (value instanceof UUID uuid) {
+            buffer.put(UUID_VALUE).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof WorkflowSource source) {
+            buffer.put(WORKFLOW_SOURCE);
+            encodeValue(source.id(), buffer);
+            encodeValue(source.uri(), buffer);
+            // Credentials never reach the journal; replayed sources carry no username or password.
+            encodeValue(null, buffer);
+            encodeValue(null, buffer);
+            encodeValue(source.data(), buffer);
+        } else if (value instanceof List<?> list) {
+            buffer.put(LIST).putInt(list.size());
+            for (Object element : list) {
+                encodeValue(element, buffer);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            buffer.put(MAP).putInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                putString(buffer, (String) entry.getKey());
+                encodeValue(entry.getValue(), buffer);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported attribute type " + value.getClass().getName());
+        }
+    }
+
+    private static Object decodeValue(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        return switch (tag) {
+            case NULL -> null;
+            case STRING -> getString(buffer);
+            case INTEGER -> buffer.getInt();
+            case LONG -> buffer.getLong();
+            case DOUBLE -> buffer.getDouble();
+            case FLOAT -> buffer.getFloat();
+            case BOOLEAN -> buffer.get() != 0;
+            case SHORT -> buffer.getShort();
+            case BYTE -> buffer.get();
+            case CHARACTER -> buffer.getChar();
+            case DURATION -> Duration.ofSeconds(buffer.getLong(), buffer.getInt());
+            case INSTANT -> Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            case UUID_VALUE -> new UUID(buffer.getLong(), buffer.getLong());
+            case WORKFLOW_SOURCE -> new WorkflowSource(
+                    (String) decodeValue(buffer),
+                    (String) decodeValue(buffer),
+                    (String) decodeValue(buffer),
+                    (String) decodeValue(buffer),
+                    (String) decodeValue(buffer));
+            case LIST -> {
+                int size = buffer.getInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(decodeValue(buffer));
+                }
+                yield list;
+            }
+            case MAP -> {
+                int size = buffer.getInt();
+                Map<String, Object> map = new LinkedHashMap<>(Math.max(16, size * 2));
+                for (int i = 0; i < size; i++) {
+                    String key = getString(buffer);
+                    map.put(key, decodeValue(buffer));
+                }
+                yield map;
+            }
+            default -> throw new IllegalStateException("Unknown attribute tag " + tag);
+        };
+    }
+}
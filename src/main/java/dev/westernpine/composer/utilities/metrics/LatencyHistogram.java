@@ -0,0 +1,97 @@
+package dev.westernpine.composer.utilities.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free, allocation-free latency histogram. Buckets are powers of two split into four linear
+ * sub-buckets, so any reported percentile is within 25% of the true value.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        totalNanos.add(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public Duration getMean() {
+        long samples = count.sum();
+        return samples == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos.sum() / samples);
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile, where {@code percentile} is in
+     * {@code [0, 100]}.
+     */
+    public Duration getPercentile(double percentile) {
+        return percentile(percentile, this);
+    }
+
+    /**
+     * Returns a percentile across several histograms, as if all samples had been recorded in one.
+     */
+    public static Duration percentile(double percentile, LatencyHistogram... histograms) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        long[] merged = new long[BUCKETS];
+        long total = 0L;
+        for (LatencyHistogram histogram : histograms) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucket = histogram.counts.get(i);
+                merged[i] += bucket;
+                total += bucket;
+            }
+        }
+        if (total == 0L) {
+            return Duration.ZERO;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += merged[i];
+            if (seen >= Math.max(1L, rank)) {
+                return Duration.ofNanos(upperBoundOf(i));
+            }
+        }
+        return Duration.ofNanos(upperBoundOf(BUCKETS - 1));
+    }
+
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min(BUCKETS - 1, (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub);
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        if (magnitude >= 62) {
+            return Long.MAX_VALUE;
+        }
+        long base = 1L << magnitude;
+        long width = base >>> SUB_BUCKET_BITS;
+        return base + (sub + 1) * width - 1;
+    }
+}
@@ -0,0 +1,27 @@
+package dev.westernpine.composer.app;
+
+import dev.westernpine.composer.api.Engine;
+import dev.westernpine.composer.api.EventBus;
+import dev.westernpine.composer.model.config.DefaultEngineConfig;
+import dev.westernpine.composer.runtime.eventbus.DefaultEventBus;
+
+import java.util.List;
+
+/**
+ * Builds engines with default components for tests outside this package.
+ */
+public final class TestEngines {
+
+    private TestEngines() {
+    }
+
+    public static Engine create() {
+        return create(new DefaultEventBus());
+    }
+
+    public static Engine create(EventBus eventBus) {
+        DefaultEngineBuilder builder = new DefaultEngineBuilder(new DefaultEngineConfig("test", List.of()));
+        builder.setEventBus(eventBus);
+        return builder.build();
+    }
+}
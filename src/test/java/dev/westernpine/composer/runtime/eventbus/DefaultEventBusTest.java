@@ -0,0 +1,97 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+import dev.westernpine.composer.api.Engine;
+import dev.westernpine.composer.app.TestEngines;
+import dev.westernpine.composer.model.payload.DefaultPayload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DefaultEventBusTest {
+
+    private DefaultEventBus eventBus;
+    private Engine engine;
+
+    @BeforeEach
+    void setUp() {
+        eventBus = new DefaultEventBus();
+        engine = TestEngines.create(eventBus);
+    }
+
+    @Test
+    void deliversInPriorityOrderAndHonoursCancellation() {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        eventBus.subscribe("tick", 0, false, payload -> calls.add("low"));
+        eventBus.subscribe("tick", 0, true, payload -> calls.add("low-ignores-cancelled"));
+        eventBus.subscribe("tick", 10, false, payload -> {
+            calls.add("high");
+            payload.cancel();
+        });
+
+        eventBus.publish("tick", new DefaultPayload(engine));
+
+        assertThat(calls).containsExactly("high", "low-ignores-cancelled");
+    }
+
+    @Test
+    void publishUsesTheSnapshotTakenWhenItStarted() {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        AtomicReference<UUID> second = new AtomicReference<>();
+        eventBus.subscribe("tick", 10, false, payload -> {
+            calls.add("first");
+            eventBus.unsubscribe("tick", second.get());
+            eventBus.subscribe("tick", 0, false, added -> calls.add("added"));
+        });
+        second.set(eventBus.subscribe("tick", 5, false, payload -> calls.add("second")));
+
+        eventBus.publish("tick", new DefaultPayload(engine));
+
+        assertThat(calls).containsExactly("first", "second");
+    }
+
+    @Test
+    void slowSubscriberDoesNotBlockOtherPublishersOrSubscriptions() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        eventBus.subscribe("slow", 0, false, payload -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread publisher = new Thread(() -> eventBus.publish("slow", new DefaultPayload(engine)));
+        publisher.start();
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<String> calls = new CopyOnWriteArrayList<>();
+        eventBus.subscribe("fast", 0, false, payload -> calls.add("fast"));
+        eventBus.publish("fast", new DefaultPayload(engine));
+
+        assertThat(calls).containsExactly("fast");
+        release.countDown();
+        publisher.join(5_000L);
+    }
+
+    @Test
+    void failingSubscriberDoesNotStopDelivery() {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        eventBus.subscribe("tick", 10, false, payload -> {
+            throw new IllegalStateException("boom");
+        });
+        eventBus.subscribe("tick", 0, false, payload -> calls.add("after"));
+
+        eventBus.publish("tick", new DefaultPayload(engine));
+
+        assertThat(calls).containsExactly("after");
+    }
+}
@@ -0,0 +1,51 @@
+package dev.westernpine.composer.runtime.eventbus;
+
+import dev.westernpine.composer.api.Engine;
+import dev.westernpine.composer.app.TestEngines;
+import dev.westernpine.composer.model.payload.DefaultPayload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferEventBusTest {
+
+    private RingBufferEventBus eventBus;
+    private Engine engine;
+
+    @BeforeEach
+    void setUp() {
+        eventBus = new RingBufferEventBus(64, WaitStrategy.PARK);
+        engine = TestEngines.create(eventBus);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventBus.close();
+    }
+
+    @Test
+    void publishingByNameDoesNotInternTopics() throws Exception {
+        int before = eventBus.topic("probe-before").id();
+
+        for (int i = 0; i < 100; i++) {
+            eventBus.publishAsync("unseen-" + i, new DefaultPayload(engine)).get();
+        }
+
+        assertThat(eventBus.topic("probe-after").id()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void deliversByNameAndByHandle() throws Exception {
+        AtomicInteger delivered = new AtomicInteger();
+        eventBus.subscribe("tick", 0, false, payload -> delivered.incrementAndGet());
+
+        eventBus.publishAsync("tick", new DefaultPayload(engine)).get();
+        eventBus.publishAsync(eventBus.topic("tick"), new DefaultPayload(engine)).get();
+
+        assertThat(delivered).hasValue(2);
+    }
+}
@@ -0,0 +1,93 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import dev.westernpine.composer.api.Action;
+import dev.westernpine.composer.api.Engine;
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.app.TestEngines;
+import dev.westernpine.composer.model.payload.DefaultPayload;
+import dev.westernpine.composer.model.workflow.Workflow;
+import dev.westernpine.composer.model.workflow.WorkflowAction;
+import dev.westernpine.composer.model.workflow.WorkflowBinding;
+import dev.westernpine.composer.runtime.eventbus.AsyncEventBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DefaultInterpreterTest {
+
+    static final AtomicInteger ACTIONS = new AtomicInteger();
+
+    public static class Count implements Action {
+        @Override
+        public void execute(Payload payload) {
+            ACTIONS.incrementAndGet();
+        }
+    }
+
+    private AsyncEventBus eventBus;
+    private Engine engine;
+    private DefaultInterpreter interpreter;
+
+    @BeforeEach
+    void setUp() {
+        ACTIONS.set(0);
+        eventBus = new AsyncEventBus(Executors.newSingleThreadExecutor());
+        engine = TestEngines.create(eventBus);
+        interpreter = (DefaultInterpreter) engine.getInterpreter();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((ExecutorService) eventBus.getExecutor()).shutdownNow();
+    }
+
+    @Test
+    void addedWorkflowReceivesEventsPublishedRightAfterOnAsyncBus() throws Exception {
+        interpreter.addWorkflow(workflow("counter", "tick"));
+
+        publish("tick");
+
+        assertThat(ACTIONS).hasValue(1);
+    }
+
+    @Test
+    void removedWorkflowStopsReceivingEventsOnAsyncBus() throws Exception {
+        interpreter.addWorkflow(workflow("counter", "tick"));
+        publish("tick");
+
+        interpreter.removeWorkflow("counter");
+        publish("tick");
+
+        assertThat(ACTIONS).hasValue(1);
+        assertThat(interpreter.workflowExists("counter")).isFalse();
+    }
+
+    @Test
+    void readdingWorkflowKeepsOneSubscriptionPerBinding() throws Exception {
+        interpreter.addWorkflow(workflow("counter", "tick"));
+        interpreter.addWorkflow(workflow("counter", "tick"));
+
+        publish("tick");
+
+        assertThat(ACTIONS).hasValue(1);
+    }
+
+    private void publish(String topic) throws Exception {
+        eventBus.publishAsync(topic, new DefaultPayload(engine)).get();
+    }
+
+    static Workflow workflow(String id, String topic) {
+        return new Workflow(id, "1",
+                List.of(),
+                List.of(new WorkflowAction(Count.class.getName(), Map.of())),
+                List.of(new WorkflowBinding(id + "-binding", topic, "test", 0, true, false)));
+    }
+}
@@ -0,0 +1,96 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import dev.westernpine.composer.api.Action;
+import dev.westernpine.composer.api.Engine;
+import dev.westernpine.composer.api.EventBus;
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.api.PurePredicate;
+import dev.westernpine.composer.app.TestEngines;
+import dev.westernpine.composer.model.payload.DefaultPayload;
+import dev.westernpine.composer.model.workflow.Workflow;
+import dev.westernpine.composer.model.workflow.WorkflowAction;
+import dev.westernpine.composer.model.workflow.WorkflowBinding;
+import dev.westernpine.composer.model.workflow.WorkflowPredicate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PredicateMemoTest {
+
+    static final AtomicInteger ACTIONS = new AtomicInteger();
+
+    public static class XIsOne implements PurePredicate {
+        @Override
+        public boolean evaluate(Payload payload) {
+            return payload.get("x", Integer.class).filter(x -> x == 1).isPresent();
+        }
+    }
+
+    public static class Count implements Action {
+        @Override
+        public void execute(Payload payload) {
+            ACTIONS.incrementAndGet();
+        }
+    }
+
+    private Engine engine;
+    private EventBus eventBus;
+    private DefaultInterpreter interpreter;
+
+    @BeforeEach
+    void setUp() {
+        ACTIONS.set(0);
+        engine = TestEngines.create();
+        eventBus = engine.getEventBus();
+        interpreter = (DefaultInterpreter) engine.getInterpreter();
+        interpreter.setPredicateMemoization(true);
+    }
+
+    @Test
+    void workflowsOnOneEventShareTheResult() {
+        interpreter.addWorkflow(workflow("first", 2));
+        interpreter.addWorkflow(workflow("second", 1));
+
+        eventBus.publish("tick", new DefaultPayload(engine).with("x", 2));
+
+        assertThat(ACTIONS).hasValue(0);
+        assertThat(interpreter.getPredicateMemoMisses()).isEqualTo(1);
+        assertThat(interpreter.getPredicateMemoHits()).isEqualTo(1);
+    }
+
+    @Test
+    void republishedPayloadIsEvaluatedAgain() {
+        interpreter.addWorkflow(workflow("counter", 0));
+        DefaultPayload payload = new DefaultPayload(engine).with("x", 2);
+        eventBus.publish("tick", payload);
+
+        eventBus.publish("tick", payload.with("x", 1));
+
+        assertThat(ACTIONS).hasValue(1);
+        assertThat(interpreter.getPredicateMemoHits()).isZero();
+    }
+
+    @Test
+    void subscriberBetweenWorkflowsInvalidatesTheResult() {
+        interpreter.addWorkflow(workflow("first", 3));
+        eventBus.subscribe("tick", 2, false, payload -> ((DefaultPayload) payload).with("x", 1));
+        interpreter.addWorkflow(workflow("second", 1));
+
+        eventBus.publish("tick", new DefaultPayload(engine).with("x", 2));
+
+        assertThat(ACTIONS).hasValue(1);
+        assertThat(interpreter.getPredicateMemoHits()).isZero();
+    }
+
+    private static Workflow workflow(String id, int priority) {
+        return new Workflow(id, "1",
+                List.of(new WorkflowPredicate(XIsOne.class.getName(), Map.of(), List.of())),
+                List.of(new WorkflowAction(Count.class.getName(), Map.of())),
+                List.of(new WorkflowBinding(id + "-binding", "tick", "test", priority, true, false)));
+    }
+}
@@ -0,0 +1,56 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import dev.westernpine.composer.api.Engine;
+import dev.westernpine.composer.app.TestEngines;
+import dev.westernpine.composer.model.payload.DefaultPayload;
+import dev.westernpine.composer.model.workflow.Workflow;
+import dev.westernpine.composer.model.workflow.WorkflowAction;
+import dev.westernpine.composer.model.workflow.WorkflowBinding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PredicateNetworkTest {
+
+    private Engine engine;
+    private DefaultInterpreter interpreter;
+
+    @BeforeEach
+    void setUp() {
+        DefaultInterpreterTest.ACTIONS.set(0);
+        engine = TestEngines.create();
+        interpreter = (DefaultInterpreter) engine.getInterpreter();
+        interpreter.setSharedPredicateNetwork(true);
+    }
+
+    @Test
+    void raisingThePriorityKeepsOneNetworkSubscriber() {
+        interpreter.addWorkflow(workflow("low", 0));
+        interpreter.addWorkflow(workflow("high", 5));
+
+        engine.getEventBus().publish("tick", new DefaultPayload(engine));
+
+        assertThat(DefaultInterpreterTest.ACTIONS).hasValue(2);
+    }
+
+    @Test
+    void removingTheLastWorkflowDropsTheNetworkSubscriber() {
+        interpreter.addWorkflow(workflow("low", 0));
+        interpreter.removeWorkflow("low");
+
+        engine.getEventBus().publish("tick", new DefaultPayload(engine));
+
+        assertThat(DefaultInterpreterTest.ACTIONS).hasValue(0);
+    }
+
+    private static Workflow workflow(String id, int priority) {
+        return new Workflow(id, "1",
+                List.of(),
+                List.of(new WorkflowAction(DefaultInterpreterTest.Count.class.getName(), Map.of())),
+                List.of(new WorkflowBinding(id + "-binding", "tick", "test", priority, true, false)));
+    }
+}
@@ -0,0 +1,133 @@
+package dev.westernpine.composer.runtime.interpreter;
+
+import dev.westernpine.composer.api.Action;
+import dev.westernpine.composer.api.Engine;
+import dev.westernpine.composer.api.EventBus;
+import dev.westernpine.composer.api.Payload;
+import dev.westernpine.composer.api.Predicate;
+import dev.westernpine.composer.app.TestEngines;
+import dev.westernpine.composer.model.event.Topic;
+import dev.westernpine.composer.model.payload.DefaultPayload;
+import dev.westernpine.composer.model.predicate.PayloadAttributeEqualsPredicate;
+import dev.westernpine.composer.model.workflow.Workflow;
+import dev.westernpine.composer.model.workflow.WorkflowAction;
+import dev.westernpine.composer.model.workflow.WorkflowBinding;
+import dev.westernpine.composer.model.workflow.WorkflowPredicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches one event to a topic with several workflows, once through the interpreted path and once through
+ * the generated classes of {@link DefaultInterpreter#setBytecodeCompilation(boolean)}. Every workflow mixes
+ * several predicate and action types, so the interpreted call sites are megamorphic.
+ * <p>
+ * Not run by the test suite; see the README for the command line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkflowDispatchBenchmark {
+
+    private static final String TOPIC = "benchmark.tick";
+
+    static long sink;
+
+    @Param({"false", "true"})
+    public boolean generated;
+
+    @Param({"16"})
+    public int workflowCount;
+
+    private EventBus eventBus;
+    private Topic topic;
+    private Payload payload;
+
+    public static class Positive implements Predicate {
+        @Override
+        public boolean evaluate(Payload payload) {
+            return payload.get("amount", Integer.class).filter(amount -> amount > 0).isPresent();
+        }
+    }
+
+    public static class NotCancelled implements Predicate {
+        @Override
+        public boolean evaluate(Payload payload) {
+            return !payload.isCancelled();
+        }
+    }
+
+    public static class Accumulate implements Action {
+        @Override
+        public void execute(Payload payload) {
+            sink += payload.get("amount", Integer.class).orElse(0);
+        }
+    }
+
+    public static class Touch implements Action {
+        @Override
+        public void execute(Payload payload) {
+            sink++;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Engine engine = TestEngines.create();
+        DefaultInterpreter interpreter = (DefaultInterpreter) engine.getInterpreter();
+        interpreter.setBytecodeCompilation(generated);
+        List<Workflow> workflows = new ArrayList<>();
+        for (int i = 0; i < workflowCount; i++) {
+            workflows.add(workflow("workflow-" + i));
+        }
+        interpreter.addWorkflows(workflows);
+        if (generated && !interpreter.getPlan("workflow-0").map(WorkflowPlan::isGenerated).orElse(false)) {
+            throw new IllegalStateException("Workflows were not compiled to generated classes");
+        }
+        eventBus = engine.getEventBus();
+        topic = eventBus.topic(TOPIC);
+        payload = new DefaultPayload(engine).with("kind", "order").with("amount", 3);
+    }
+
+    @Benchmark
+    public long dispatch() {
+        eventBus.publish(topic, payload);
+        return sink;
+    }
+
+    private static Workflow workflow(String id) {
+        return new Workflow(id, "1",
+                List.of(
+                        new WorkflowPredicate(PayloadAttributeEqualsPredicate.class.getName(), Map.of("attribute", "kind", "value", "order"), List.of()),
+                        new WorkflowPredicate(Positive.class.getName(), Map.of(), List.of()),
+                        new WorkflowPredicate(NotCancelled.class.getName(), Map.of(), List.of())),
+                List.of(
+                        new WorkflowAction(Accumulate.class.getName(), Map.of()),
+                        new WorkflowAction(Touch.class.getName(), Map.of())),
+                List.of(new WorkflowBinding(id + "-binding", TOPIC, "test", 0, true, false)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WorkflowDispatchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
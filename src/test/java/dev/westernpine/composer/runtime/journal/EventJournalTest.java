@@ -0,0 +1,138 @@
+package dev.westernpine.composer.runtime.journal;
+
+import dev.westernpine.composer.api.Engine;
+import dev.westernpine.composer.app.TestEngines;
+import dev.westernpine.composer.model.payload.DefaultPayload;
+import dev.westernpine.composer.runtime.journal.EventJournal.JournalRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventJournalTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private Engine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = TestEngines.create();
+    }
+
+    @Test
+    void reopenedJournalContinuesAfterTheLastRecord() {
+        long first;
+        long second;
+        try (EventJournal journal = open()) {
+            first = journal.append("tick", payload(1));
+            second = journal.append("tick", payload(2));
+        }
+
+        try (EventJournal journal = open()) {
+            long third = journal.append("tick", payload(3));
+
+            assertThat(third).isGreaterThan(second).isGreaterThan(first);
+            assertThat(read(journal)).extracting(record -> record.attributes().get("n")).containsExactly(1, 2, 3);
+        }
+    }
+
+    @Test
+    void recoveryDiscardsACorruptRecordAndEverythingAfterIt() throws IOException {
+        long corrupt;
+        try (EventJournal journal = open()) {
+            journal.append("tick", payload(1));
+            corrupt = journal.append("tick", payload(2));
+            journal.append("tick", payload(3));
+        }
+        // Flip a byte of the second record's body, after its length and checksum.
+        flipByte(corrupt + 2 * Integer.BYTES + 1);
+
+        try (EventJournal journal = open()) {
+            assertThat(journal.getEndOffset()).isEqualTo(corrupt);
+            assertThat(read(journal)).extracting(record -> record.attributes().get("n")).containsExactly(1);
+
+            long appended = journal.append("tick", payload(4));
+
+            assertThat(appended).isEqualTo(corrupt);
+            assertThat(read(journal)).extracting(record -> record.attributes().get("n")).containsExactly(1, 4);
+        }
+    }
+
+    @Test
+    void recoveryStopsAtATornRecord() throws IOException {
+        long torn;
+        try (EventJournal journal = open()) {
+            journal.append("tick", payload(1));
+            torn = journal.append("tick", payload(2));
+        }
+        // A length whose body runs past the end of the segment, as left by a crash in the middle of a write.
+        writeInt(torn, SEGMENT_SIZE);
+
+        try (EventJournal journal = open()) {
+            assertThat(journal.getEndOffset()).isEqualTo(torn);
+            assertThat(read(journal)).hasSize(1);
+        }
+    }
+
+    @Test
+    void unsupportedAttributesAreSkipped() {
+        try (EventJournal journal = open()) {
+            journal.append("tick", payload(1).with("opaque", new Object()));
+
+            assertThat(read(journal)).singleElement()
+                    .satisfies(record -> assertThat(record.attributes()).containsOnlyKeys("n"));
+        }
+    }
+
+    private EventJournal open() {
+        return new EventJournal(directory, SEGMENT_SIZE, Duration.ofMillis(10));
+    }
+
+    private DefaultPayload payload(int n) {
+        return new DefaultPayload(engine).with("n", n);
+    }
+
+    private static List<JournalRecord> read(EventJournal journal) {
+        List<JournalRecord> records = new ArrayList<>();
+        journal.read(0L, records::add);
+        return records;
+    }
+
+    private void flipByte(long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, position);
+            value.put(0, (byte) ~value.get(0));
+            value.rewind();
+            channel.write(value, position);
+        }
+    }
+
+    private void writeInt(long position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, value), position);
+        }
+    }
+
+    private Path segment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".journal")).findFirst().orElseThrow();
+        }
+    }
+}